@@ -0,0 +1,75 @@
+package just.smartadapter.benchmark;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import just.smartadapter.SmartAdapter;
+import just.smartadapter.core.ColumnarDataSource;
+
+/**
+ * 200k 行的 ColumnarDataSource：读取字段和以列为 payload 的单字段更新
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ColumnarBenchmark {
+
+    private static final int ROW_COUNT = 200_000;
+
+    private ColumnarDataSource dataSource;
+
+    private ColumnarDataSource.LongColumn volume;
+
+    private ColumnarDataSource.DoubleColumn price;
+
+    private CountingObserver observer;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new ColumnarDataSource();
+        volume = dataSource.addLongColumn("volume");
+        price = dataSource.addDoubleColumn("price");
+        for (int i = 0; i < ROW_COUNT; i++) {
+            final int position = dataSource.appendRow();
+            dataSource.setLong(position, volume, i);
+            dataSource.setDouble(position, price, i * 0.01);
+        }
+        final SmartAdapter<ColumnarDataSource.Row> adapter = SmartAdapter.newBuilder(dataSource)
+                .singleType()
+                .layout(1)
+                .build();
+        observer = new CountingObserver();
+        adapter.registerAdapterDataObserver(observer);
+        new RecyclerView(null).setAdapter(adapter);
+    }
+
+    private int nextPosition() {
+        cursor = cursor + 1 == ROW_COUNT ? 0 : cursor + 1;
+        return cursor;
+    }
+
+    @Benchmark
+    public double readRow() {
+        final ColumnarDataSource.Row row = dataSource.get(nextPosition());
+        return row.getDouble(price) * row.getLong(volume);
+    }
+
+    @Benchmark
+    public int updatePrice() {
+        final int position = nextPosition();
+        dataSource.setDouble(position, price, dataSource.getDouble(position, price) + 0.01);
+        return observer.events;
+    }
+}
@@ -0,0 +1,101 @@
+package just.smartadapter.benchmark;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import just.smartadapter.SmartAdapter;
+import just.smartadapter.core.ListDataSource;
+import just.smartadapter.wrapper.ConcatAdapter;
+
+/**
+ * ConcatAdapter 的位置换算：itemViewType 查询、绑定，以及 section 内插入删除后的通知转发
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConcatBenchmark {
+
+    private static final int ITEM_COUNT_PER_SECTION = 100;
+
+    @Param({"4", "64"})
+    public int sectionCount;
+
+    private final List<SmartAdapter<Integer>> sectionAdapters = new ArrayList<>();
+
+    private ConcatAdapter adapter;
+
+    private RecyclerView.ViewHolder holder;
+
+    private CountingObserver observer;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        adapter = new ConcatAdapter();
+        for (int section = 0; section < sectionCount; section++) {
+            final List<Integer> items = new ArrayList<>(ITEM_COUNT_PER_SECTION);
+            for (int i = 0; i < ITEM_COUNT_PER_SECTION; i++) {
+                items.add(i);
+            }
+            final SmartAdapter<Integer> sectionAdapter = SmartAdapter.newBuilder(new ListDataSource<>(items))
+                    .singleType()
+                    .layout(1)
+                    .onBind((viewHolder, data, position, type, smartAdapter) -> {
+                    })
+                    .build();
+            sectionAdapters.add(sectionAdapter);
+            adapter.addAdapter(sectionAdapter);
+        }
+
+        final RecyclerView recyclerView = new RecyclerView(null);
+        recyclerView.setAdapter(adapter);
+        observer = new CountingObserver();
+        adapter.registerAdapterDataObserver(observer);
+
+        holder = adapter.createViewHolder(recyclerView, adapter.getItemViewType(0));
+    }
+
+    private int nextPosition() {
+        cursor = cursor + 1 == sectionCount * ITEM_COUNT_PER_SECTION ? 0 : cursor + 1;
+        return cursor;
+    }
+
+    @Benchmark
+    public int getItemViewType() {
+        return adapter.getItemViewType(nextPosition());
+    }
+
+    @Benchmark
+    public void bindViewHolder() {
+        //noinspection unchecked
+        adapter.bindViewHolder(holder, nextPosition());
+    }
+
+    /**
+     * section 内插入后立即删除，item 总数保持不变
+     */
+    @Benchmark
+    public int notifySectionItemInsertedAndRemoved() {
+        final SmartAdapter<Integer> sectionAdapter = sectionAdapters.get(nextPosition() % sectionCount);
+        final ListDataSource<Integer> dataSource = (ListDataSource<Integer>) sectionAdapter.getDataSource();
+        dataSource.add(0);
+        sectionAdapter.notifyItemInserted(dataSource.size() - 1);
+        dataSource.removeAt(dataSource.size() - 1);
+        sectionAdapter.notifyItemRemoved(dataSource.size());
+        return observer.events;
+    }
+}
@@ -0,0 +1,36 @@
+package just.smartadapter.benchmark;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * 代替 RecyclerView 接收 adapter 的通知，只计数
+ */
+final class CountingObserver extends RecyclerView.AdapterDataObserver {
+
+    int events;
+
+    @Override
+    public void onChanged() {
+        events++;
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        events++;
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        events++;
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        events++;
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        events++;
+    }
+}
@@ -0,0 +1,108 @@
+package just.smartadapter.benchmark;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import just.smartadapter.SmartAdapter;
+import just.smartadapter.core.AutoNotifyDataSource;
+import just.smartadapter.core.ChunkedListDataSource;
+import just.smartadapter.core.ListDataSource;
+
+/**
+ * ListDataSource、ChunkedListDataSource 与 AutoNotifyDataSource 的常用操作，每次操作后数据源大小保持不变
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataSourceBenchmark {
+
+    private static final Integer MARKER = -1;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    /**
+     * list：ListDataSource；chunked：ChunkedListDataSource；autoNotify：AutoNotifyDataSource 包装 ListDataSource，并关联 SmartAdapter
+     */
+    @Param({"list", "chunked", "autoNotify"})
+    public String source;
+
+    private SmartAdapter.DataSource<Integer> dataSource;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final List<Integer> items = new ArrayList<>(size + 1);
+        for (int i = 0; i < size; i++) {
+            items.add(i);
+        }
+        final ListDataSource<Integer> listDataSource = new ListDataSource<>(items);
+        if ("list".equals(source)) {
+            dataSource = listDataSource;
+        } else if ("chunked".equals(source)) {
+            dataSource = new ChunkedListDataSource<>(items);
+        } else {
+            final AutoNotifyDataSource<Integer> autoNotifyDataSource = new AutoNotifyDataSource<>(listDataSource);
+            final SmartAdapter<Integer> adapter = SmartAdapter.newBuilder(autoNotifyDataSource)
+                    .singleType()
+                    .layout(1)
+                    .build();
+            adapter.registerAdapterDataObserver(new CountingObserver());
+            new RecyclerView(null).setAdapter(adapter);
+            dataSource = autoNotifyDataSource;
+        }
+    }
+
+    private int nextPosition() {
+        cursor = cursor + 1 == size ? 0 : cursor + 1;
+        return cursor;
+    }
+
+    @Benchmark
+    public Integer get() {
+        return dataSource.get(nextPosition());
+    }
+
+    @Benchmark
+    public void set() {
+        final int position = nextPosition();
+        dataSource.set(position, dataSource.get(position));
+    }
+
+    @Benchmark
+    public void addRemoveTail() {
+        dataSource.add(MARKER);
+        dataSource.removeAt(size);
+    }
+
+    @Benchmark
+    public void addRemoveMiddle() {
+        dataSource.add(size / 2, MARKER);
+        dataSource.removeAt(size / 2);
+    }
+
+    @Benchmark
+    public void moveMiddle() {
+        dataSource.move(size / 4, size * 3 / 4);
+        dataSource.move(size * 3 / 4, size / 4);
+    }
+
+    @Benchmark
+    public int positionOfLast() {
+        return dataSource.positionOf(dataSource.get(size - 1));
+    }
+}
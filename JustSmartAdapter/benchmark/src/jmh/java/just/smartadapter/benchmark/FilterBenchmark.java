@@ -0,0 +1,75 @@
+package just.smartadapter.benchmark;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import just.smartadapter.SmartAdapter;
+import just.smartadapter.core.AutoNotifyDataSource;
+import just.smartadapter.core.FilteredDataSource;
+import just.smartadapter.core.ListDataSource;
+
+/**
+ * 100k 个 item 的 FilteredDataSource：修改过滤条件，以及原始数据源中间插入、移除时的增量维护
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterBenchmark {
+
+    private static final int ITEM_COUNT = 100_000;
+
+    private AutoNotifyDataSource<Integer> originDataSource;
+
+    private FilteredDataSource<Integer> filteredDataSource;
+
+    private CountingObserver observer;
+
+    private int divisor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final List<Integer> items = new ArrayList<>(ITEM_COUNT + 1);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(i);
+        }
+        originDataSource = new AutoNotifyDataSource<>(new ListDataSource<>(items));
+        filteredDataSource = new FilteredDataSource<>(originDataSource, data -> data % 2 == 0);
+        final SmartAdapter<Integer> adapter = SmartAdapter.newBuilder(filteredDataSource)
+                .rebindShiftedItems(false)
+                .singleType()
+                .layout(1)
+                .build();
+        observer = new CountingObserver();
+        adapter.registerAdapterDataObserver(observer);
+        new RecyclerView(null).setAdapter(adapter);
+    }
+
+    /**
+     * 在两个过滤条件之间切换，只通知差异
+     */
+    @Benchmark
+    public int setFilter() {
+        final int current = divisor = divisor == 2 ? 3 : 2;
+        filteredDataSource.setFilter(data -> data % current == 0);
+        return observer.events;
+    }
+
+    @Benchmark
+    public int originAddRemoveMiddle() {
+        originDataSource.add(ITEM_COUNT / 2, 0);
+        originDataSource.removeAt(ITEM_COUNT / 2);
+        return filteredDataSource.size();
+    }
+}
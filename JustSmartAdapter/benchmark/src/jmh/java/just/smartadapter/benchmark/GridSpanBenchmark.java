@@ -0,0 +1,78 @@
+package just.smartadapter.benchmark;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import just.smartadapter.SmartAdapter;
+import just.smartadapter.core.ListDataSource;
+
+/**
+ * 10k 个 item 的 grid 中，在靠后的位置发生变化后查询 spanGroupIndex，模拟滚动到很深的位置时的布局
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GridSpanBenchmark {
+
+    private static final int ITEM_COUNT = 10_000;
+
+    private static final int SPAN_COUNT = 4;
+
+    private SmartAdapter<Integer> adapter;
+
+    private GridLayoutManager.SpanSizeLookup spanSizeLookup;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final List<Integer> items = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(i);
+        }
+        adapter = SmartAdapter.newBuilder(new ListDataSource<>(items))
+                .type(0)
+                .filter((data, position) -> data % 7 == 0)
+                .layout(1)
+                .gridSpanSize(SPAN_COUNT)
+                .type(1)
+                .filter((data, position) -> data % 7 != 0)
+                .layout(2)
+                .spanSize((data, position, spanCount) -> data % 3 == 0 ? 2 : 1)
+                .build();
+
+        final GridLayoutManager gridLayoutManager = new GridLayoutManager(null, SPAN_COUNT);
+        final RecyclerView recyclerView = new RecyclerView(null);
+        recyclerView.setLayoutManager(gridLayoutManager);
+        recyclerView.setAdapter(adapter);
+        spanSizeLookup = gridLayoutManager.getSpanSizeLookup();
+    }
+
+    private int nextPosition() {
+        cursor = cursor + 1 == 100 ? 0 : cursor + 1;
+        return ITEM_COUNT - 200 + cursor;
+    }
+
+    /**
+     * 变化位置之前的缓存仍然有效，只需重新计算变化位置之后的少量 item
+     */
+    @Benchmark
+    public int spanGroupIndexAfterChange() {
+        final int position = nextPosition();
+        adapter.notifyItemChanged(position);
+        return spanSizeLookup.getSpanGroupIndex(position + 100, SPAN_COUNT);
+    }
+}
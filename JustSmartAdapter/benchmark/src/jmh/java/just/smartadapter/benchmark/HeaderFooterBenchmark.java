@@ -0,0 +1,108 @@
+package just.smartadapter.benchmark;
+
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import just.smartadapter.SmartAdapter;
+import just.smartadapter.core.ListDataSource;
+import just.smartadapter.wrapper.HeaderFooterAdapter;
+
+/**
+ * HeaderFooterAdapter 的位置换算：itemViewType 查询、绑定和通知转发，depth 为 HeaderFooterAdapter 嵌套的层数
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HeaderFooterBenchmark {
+
+    private static final int ITEM_COUNT = 10_000;
+
+    @Param({"1", "4"})
+    public int headerCount;
+
+    @Param({"1", "3"})
+    public int depth;
+
+    /**
+     * 第一个原始 item 的位置
+     */
+    private int originOffset;
+
+    private SmartAdapter<Integer> originAdapter;
+
+    private HeaderFooterAdapter adapter;
+
+    private RecyclerView.ViewHolder holder;
+
+    private CountingObserver observer;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final List<Integer> items = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(i);
+        }
+        originAdapter = SmartAdapter.newBuilder(new ListDataSource<>(items))
+                .singleType()
+                .layout(1)
+                .onBind((viewHolder, data, position, type, smartAdapter) -> {
+                })
+                .build();
+        RecyclerView.Adapter<?> wrapped = originAdapter;
+        for (int layer = 0; layer < depth; layer++) {
+            adapter = new HeaderFooterAdapter(wrapped);
+            for (int i = 0; i < headerCount; i++) {
+                adapter.addHeader(new View(null));
+            }
+            adapter.addFooter(new View(null));
+            wrapped = adapter;
+        }
+        originOffset = headerCount * depth;
+
+        final RecyclerView recyclerView = new RecyclerView(null);
+        recyclerView.setAdapter(adapter);
+        observer = new CountingObserver();
+        adapter.registerAdapterDataObserver(observer);
+
+        holder = adapter.createViewHolder(recyclerView, adapter.getItemViewType(originOffset));
+    }
+
+    private int nextPosition() {
+        cursor = cursor + 1 == ITEM_COUNT ? 0 : cursor + 1;
+        return cursor;
+    }
+
+    @Benchmark
+    public int getItemViewType() {
+        return adapter.getItemViewType(originOffset + nextPosition());
+    }
+
+    @Benchmark
+    public void bindViewHolder() {
+        //noinspection unchecked
+        adapter.bindViewHolder(holder, originOffset + nextPosition());
+    }
+
+    @Benchmark
+    public int notifyOriginItemChanged() {
+        originAdapter.getNotifier().notifyItemChanged(nextPosition());
+        return observer.events;
+    }
+}
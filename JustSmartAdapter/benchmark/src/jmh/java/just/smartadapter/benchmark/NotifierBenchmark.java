@@ -0,0 +1,84 @@
+package just.smartadapter.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import just.smartadapter.SmartAdapter;
+import just.smartadapter.core.AdapterNotifier;
+import just.smartadapter.core.ListDataSource;
+
+/**
+ * FixedAdapterNotifier 把一次通知分发给所有 observer 的开销，数据本身不变化
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NotifierBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"1", "4"})
+    public int observerCount;
+
+    @Param({"true", "false"})
+    public boolean rebindShiftedItems;
+
+    private AdapterNotifier notifier;
+
+    private final List<CountingObserver> observers = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final List<Integer> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(i);
+        }
+        final SmartAdapter<Integer> adapter = SmartAdapter.newBuilder(new ListDataSource<>(items))
+                .rebindShiftedItems(rebindShiftedItems)
+                .singleType()
+                .layout(1)
+                .build();
+        for (int i = 0; i < observerCount; i++) {
+            final CountingObserver observer = new CountingObserver();
+            adapter.registerAdapterDataObserver(observer);
+            observers.add(observer);
+        }
+        notifier = adapter.getNotifier();
+    }
+
+    @Benchmark
+    public int notifyItemInserted() {
+        notifier.notifyItemInserted(size / 2);
+        return observers.get(0).events;
+    }
+
+    @Benchmark
+    public int notifyItemRemoved() {
+        notifier.notifyItemRemoved(size / 2);
+        return observers.get(0).events;
+    }
+
+    @Benchmark
+    public int notifyItemMoved() {
+        notifier.notifyItemMoved(size / 4, size * 3 / 4);
+        return observers.get(0).events;
+    }
+
+    @Benchmark
+    public int notifyItemRangeChanged() {
+        notifier.notifyItemRangeChanged(size / 2, 10);
+        return observers.get(0).events;
+    }
+}
@@ -0,0 +1,74 @@
+package just.smartadapter.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import just.smartadapter.SmartAdapter;
+import just.smartadapter.core.ListDataSource;
+
+/**
+ * N 个 type 时 getItemViewType 的开销，item 按 data % N 均匀分布在各个 type
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TypeResolutionBenchmark {
+
+    private static final int ITEM_COUNT = 10_000;
+
+    @Param({"1", "8", "32"})
+    public int typeCount;
+
+    /**
+     * filter：遍历 filter；cachedFilter：遍历 filter 并缓存结果；key：按 type key 查表
+     */
+    @Param({"filter", "cachedFilter", "key"})
+    public String strategy;
+
+    private SmartAdapter<Integer> adapter;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final List<Integer> items = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(i);
+        }
+        final int typeCount = this.typeCount;
+        final SmartAdapter.SmartAdapterBuilder<Integer> builder = SmartAdapter.newBuilder(new ListDataSource<>(items));
+        if ("cachedFilter".equals(strategy)) {
+            builder.cacheItemViewType();
+        }
+        if ("key".equals(strategy)) {
+            builder.typeKey(data -> data % typeCount);
+        }
+        for (int i = 0; i < typeCount; i++) {
+            final int type = i;
+            final SmartAdapter.TypeParamBuilder<Integer> typeParamBuilder = builder.type(type).layout(1);
+            if ("key".equals(strategy)) {
+                typeParamBuilder.key(type);
+            } else {
+                typeParamBuilder.filter((data, position) -> data % typeCount == type);
+            }
+        }
+        adapter = builder.build();
+    }
+
+    @Benchmark
+    public int getItemViewType() {
+        cursor = cursor + 1 == ITEM_COUNT ? 0 : cursor + 1;
+        return adapter.getItemViewType(cursor);
+    }
+}
@@ -0,0 +1,7 @@
+package android.content;
+
+/**
+ * 基准测试用的 Context 替身
+ */
+public class Context {
+}
@@ -0,0 +1,7 @@
+package android.graphics;
+
+/**
+ * 基准测试用的 Bitmap 替身
+ */
+public final class Bitmap {
+}
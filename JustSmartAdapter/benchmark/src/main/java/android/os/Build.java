@@ -0,0 +1,15 @@
+package android.os;
+
+/**
+ * 基准测试用的 Build 替身
+ */
+public class Build {
+
+    public static class VERSION {
+        public static final int SDK_INT = 29;
+    }
+
+    public static class VERSION_CODES {
+        public static final int JELLY_BEAN = 16;
+    }
+}
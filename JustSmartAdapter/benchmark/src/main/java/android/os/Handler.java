@@ -0,0 +1,34 @@
+package android.os;
+
+/**
+ * 基准测试用的 Handler 替身，post 的任务在调用线程上立即执行
+ */
+public class Handler {
+
+    private final Looper looper;
+
+    public Handler() {
+        this(Looper.myLooper());
+    }
+
+    public Handler(Looper looper) {
+        this.looper = looper;
+    }
+
+    public final boolean post(Runnable runnable) {
+        runnable.run();
+        return true;
+    }
+
+    public final boolean postDelayed(Runnable runnable, long delayMillis) {
+        runnable.run();
+        return true;
+    }
+
+    public final void removeCallbacks(Runnable runnable) {
+    }
+
+    public final Looper getLooper() {
+        return looper;
+    }
+}
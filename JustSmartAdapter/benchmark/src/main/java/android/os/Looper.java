@@ -0,0 +1,30 @@
+package android.os;
+
+/**
+ * 基准测试用的 Looper 替身，只有一个“主线程” Looper
+ */
+public final class Looper {
+
+    private static final Looper MAIN = new Looper();
+
+    private final MessageQueue queue = new MessageQueue();
+
+    private Looper() {
+    }
+
+    public static Looper getMainLooper() {
+        return MAIN;
+    }
+
+    public static Looper myLooper() {
+        return MAIN;
+    }
+
+    public static MessageQueue myQueue() {
+        return MAIN.queue;
+    }
+
+    public MessageQueue getQueue() {
+        return queue;
+    }
+}
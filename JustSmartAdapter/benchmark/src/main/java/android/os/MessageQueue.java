@@ -0,0 +1,24 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试用的 MessageQueue 替身，只记录 IdleHandler，不会回调
+ */
+public final class MessageQueue {
+
+    private final List<IdleHandler> idleHandlers = new ArrayList<>();
+
+    public void addIdleHandler(IdleHandler handler) {
+        idleHandlers.add(handler);
+    }
+
+    public void removeIdleHandler(IdleHandler handler) {
+        idleHandlers.remove(handler);
+    }
+
+    public interface IdleHandler {
+        boolean queueIdle();
+    }
+}
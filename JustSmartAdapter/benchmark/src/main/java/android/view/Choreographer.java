@@ -0,0 +1,27 @@
+package android.view;
+
+/**
+ * 基准测试用的 Choreographer 替身，postFrameCallback 的回调在调用线程上立即执行
+ */
+public final class Choreographer {
+
+    private static final Choreographer INSTANCE = new Choreographer();
+
+    private Choreographer() {
+    }
+
+    public static Choreographer getInstance() {
+        return INSTANCE;
+    }
+
+    public void postFrameCallback(FrameCallback callback) {
+        callback.doFrame(System.nanoTime());
+    }
+
+    public void removeFrameCallback(FrameCallback callback) {
+    }
+
+    public interface FrameCallback {
+        void doFrame(long frameTimeNanos);
+    }
+}
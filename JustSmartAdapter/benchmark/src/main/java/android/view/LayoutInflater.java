@@ -0,0 +1,23 @@
+package android.view;
+
+import android.content.Context;
+
+/**
+ * 基准测试用的 LayoutInflater 替身，inflate 返回一个空的 View
+ */
+public class LayoutInflater {
+
+    private final Context context;
+
+    private LayoutInflater(Context context) {
+        this.context = context;
+    }
+
+    public static LayoutInflater from(Context context) {
+        return new LayoutInflater(context);
+    }
+
+    public View inflate(int resource, ViewGroup root, boolean attachToRoot) {
+        return new View(context);
+    }
+}
@@ -0,0 +1,75 @@
+package android.view;
+
+import android.content.Context;
+
+/**
+ * 基准测试用的 View 替身
+ */
+public class View {
+
+    public static final int VISIBLE = 0x00000000;
+    public static final int INVISIBLE = 0x00000004;
+    public static final int GONE = 0x00000008;
+
+    private final Context context;
+
+    private ViewGroup.LayoutParams layoutParams = new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+
+    private OnClickListener onClickListener;
+
+    private OnLongClickListener onLongClickListener;
+
+    private int visibility = VISIBLE;
+
+    public View(Context context) {
+        this.context = context;
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public <T extends View> T findViewById(int id) {
+        return null;
+    }
+
+    public ViewGroup.LayoutParams getLayoutParams() {
+        return layoutParams;
+    }
+
+    public void setLayoutParams(ViewGroup.LayoutParams params) {
+        this.layoutParams = params;
+    }
+
+    public void setOnClickListener(OnClickListener listener) {
+        this.onClickListener = listener;
+    }
+
+    public void setOnLongClickListener(OnLongClickListener listener) {
+        this.onLongClickListener = listener;
+    }
+
+    public void setVisibility(int visibility) {
+        this.visibility = visibility;
+    }
+
+    public int getVisibility() {
+        return visibility;
+    }
+
+    public int getMeasuredWidth() {
+        return 0;
+    }
+
+    public int getMeasuredHeight() {
+        return 0;
+    }
+
+    public interface OnClickListener {
+        void onClick(View v);
+    }
+
+    public interface OnLongClickListener {
+        boolean onLongClick(View v);
+    }
+}
@@ -0,0 +1,21 @@
+package android.widget;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.view.View;
+
+/**
+ * 基准测试用的 ImageView 替身
+ */
+public class ImageView extends View {
+
+    public ImageView(Context context) {
+        super(context);
+    }
+
+    public void setImageResource(int resId) {
+    }
+
+    public void setImageBitmap(Bitmap bitmap) {
+    }
+}
@@ -0,0 +1,31 @@
+package android.widget;
+
+import android.content.Context;
+import android.view.View;
+
+/**
+ * 基准测试用的 TextView 替身
+ */
+public class TextView extends View {
+
+    private CharSequence text;
+
+    public TextView(Context context) {
+        super(context);
+    }
+
+    public void setText(CharSequence text) {
+        this.text = text;
+    }
+
+    public void setText(int resId) {
+        this.text = null;
+    }
+
+    public CharSequence getText() {
+        return text;
+    }
+
+    public void setTextColor(int color) {
+    }
+}
@@ -0,0 +1,64 @@
+package androidx.recyclerview.widget;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * 基准测试用的 DiffUtil 替身，不计算真正的差异，分发时先移除全部旧 item 再插入全部新 item
+ */
+public class DiffUtil {
+
+    private DiffUtil() {
+    }
+
+    @NonNull
+    public static DiffResult calculateDiff(@NonNull Callback callback) {
+        return calculateDiff(callback, true);
+    }
+
+    @NonNull
+    public static DiffResult calculateDiff(@NonNull Callback callback, boolean detectMoves) {
+        return new DiffResult(callback.getOldListSize(), callback.getNewListSize());
+    }
+
+    public abstract static class Callback {
+        public abstract int getOldListSize();
+
+        public abstract int getNewListSize();
+
+        public abstract boolean areItemsTheSame(int oldItemPosition, int newItemPosition);
+
+        public abstract boolean areContentsTheSame(int oldItemPosition, int newItemPosition);
+
+        @Nullable
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return null;
+        }
+    }
+
+    public abstract static class ItemCallback<T> {
+        public abstract boolean areItemsTheSame(@NonNull T oldItem, @NonNull T newItem);
+
+        public abstract boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem);
+
+        @Nullable
+        public Object getChangePayload(@NonNull T oldItem, @NonNull T newItem) {
+            return null;
+        }
+    }
+
+    public static class DiffResult {
+        private final int oldSize;
+        private final int newSize;
+
+        DiffResult(int oldSize, int newSize) {
+            this.oldSize = oldSize;
+            this.newSize = newSize;
+        }
+
+        public void dispatchUpdatesTo(@NonNull ListUpdateCallback updateCallback) {
+            updateCallback.onRemoved(0, oldSize);
+            updateCallback.onInserted(0, newSize);
+        }
+    }
+}
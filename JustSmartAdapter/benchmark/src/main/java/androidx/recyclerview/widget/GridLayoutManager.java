@@ -0,0 +1,106 @@
+package androidx.recyclerview.widget;
+
+import android.content.Context;
+
+/**
+ * 基准测试用的 GridLayoutManager 替身，SpanSizeLookup 的 span index 计算与 RecyclerView 一致但不带缓存
+ */
+public class GridLayoutManager extends RecyclerView.LayoutManager {
+
+    private final int spanCount;
+
+    private SpanSizeLookup spanSizeLookup = new DefaultSpanSizeLookup();
+
+    public GridLayoutManager(Context context, int spanCount) {
+        this.spanCount = spanCount;
+    }
+
+    public int getSpanCount() {
+        return spanCount;
+    }
+
+    public SpanSizeLookup getSpanSizeLookup() {
+        return spanSizeLookup;
+    }
+
+    public void setSpanSizeLookup(SpanSizeLookup spanSizeLookup) {
+        this.spanSizeLookup = spanSizeLookup;
+    }
+
+    public abstract static class SpanSizeLookup {
+
+        private boolean spanIndexCacheEnabled;
+
+        private boolean spanGroupIndexCacheEnabled;
+
+        public abstract int getSpanSize(int position);
+
+        public void setSpanIndexCacheEnabled(boolean cacheSpanIndices) {
+            this.spanIndexCacheEnabled = cacheSpanIndices;
+        }
+
+        public void setSpanGroupIndexCacheEnabled(boolean cacheSpanGroupIndices) {
+            this.spanGroupIndexCacheEnabled = cacheSpanGroupIndices;
+        }
+
+        public void invalidateSpanIndexCache() {
+        }
+
+        public void invalidateSpanGroupIndexCache() {
+        }
+
+        public boolean isSpanIndexCacheEnabled() {
+            return spanIndexCacheEnabled;
+        }
+
+        public boolean isSpanGroupIndexCacheEnabled() {
+            return spanGroupIndexCacheEnabled;
+        }
+
+        public int getSpanIndex(int position, int spanCount) {
+            final int positionSpanSize = getSpanSize(position);
+            if (positionSpanSize == spanCount) {
+                return 0;
+            }
+            int span = 0;
+            for (int i = 0; i < position; i++) {
+                final int size = getSpanSize(i);
+                span += size;
+                if (span == spanCount) {
+                    span = 0;
+                } else if (span > spanCount) {
+                    span = size;
+                }
+            }
+            return span + positionSpanSize <= spanCount ? span : 0;
+        }
+
+        public int getSpanGroupIndex(int adapterPosition, int spanCount) {
+            int span = 0;
+            int group = 0;
+            final int positionSpanSize = getSpanSize(adapterPosition);
+            for (int i = 0; i < adapterPosition; i++) {
+                final int size = getSpanSize(i);
+                span += size;
+                if (span == spanCount) {
+                    span = 0;
+                    group++;
+                } else if (span > spanCount) {
+                    span = size;
+                    group++;
+                }
+            }
+            if (span + positionSpanSize > spanCount) {
+                group++;
+            }
+            return group;
+        }
+    }
+
+    public static final class DefaultSpanSizeLookup extends SpanSizeLookup {
+        @Override
+        public int getSpanSize(int position) {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package androidx.recyclerview.widget;
+
+import androidx.annotation.Nullable;
+
+/**
+ * 基准测试用的 ListUpdateCallback 替身
+ */
+public interface ListUpdateCallback {
+
+    void onInserted(int position, int count);
+
+    void onRemoved(int position, int count);
+
+    void onMoved(int fromPosition, int toPosition);
+
+    void onChanged(int position, int count, @Nullable Object payload);
+}
@@ -0,0 +1,307 @@
+package androidx.recyclerview.widget;
+
+import android.content.Context;
+import android.util.SparseIntArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试用的 RecyclerView 替身，只实现库代码用到的 API
+ * <p>
+ * Adapter 的 notifyXXX 与 RecyclerView 一样按注册的逆序分发给所有 AdapterDataObserver，createViewHolder、bindViewHolder 会记录 itemViewType 和位置
+ */
+public class RecyclerView extends ViewGroup {
+
+    public static final int NO_POSITION = -1;
+    public static final long NO_ID = -1;
+    public static final int INVALID_TYPE = -1;
+
+    @Nullable
+    private Adapter adapter;
+
+    @Nullable
+    private LayoutManager layoutManager;
+
+    @NonNull
+    private RecycledViewPool recycledViewPool = new RecycledViewPool();
+
+    public RecyclerView(Context context) {
+        super(context);
+    }
+
+    @Nullable
+    public LayoutManager getLayoutManager() {
+        return layoutManager;
+    }
+
+    public void setLayoutManager(@Nullable LayoutManager layoutManager) {
+        this.layoutManager = layoutManager;
+    }
+
+    @Nullable
+    public Adapter getAdapter() {
+        return adapter;
+    }
+
+    public void setAdapter(@Nullable Adapter adapter) {
+        if (null != this.adapter) {
+            //noinspection unchecked
+            this.adapter.onDetachedFromRecyclerView(this);
+        }
+        this.adapter = adapter;
+        if (null != adapter) {
+            //noinspection unchecked
+            adapter.onAttachedToRecyclerView(this);
+        }
+    }
+
+    @NonNull
+    public RecycledViewPool getRecycledViewPool() {
+        return recycledViewPool;
+    }
+
+    public void setRecycledViewPool(@Nullable RecycledViewPool pool) {
+        this.recycledViewPool = null != pool ? pool : new RecycledViewPool();
+    }
+
+    public abstract static class LayoutManager {
+    }
+
+    public static class RecycledViewPool {
+
+        private static final int DEFAULT_MAX_SCRAP = 5;
+
+        private final Map<Integer, ArrayDeque<ViewHolder>> scraps = new HashMap<>();
+
+        private final SparseIntArray maxScraps = new SparseIntArray();
+
+        public void setMaxRecycledViews(int viewType, int max) {
+            maxScraps.put(viewType, max);
+            final ArrayDeque<ViewHolder> scrap = scraps.get(viewType);
+            while (null != scrap && scrap.size() > max) {
+                scrap.removeLast();
+            }
+        }
+
+        public int getRecycledViewCount(int viewType) {
+            final ArrayDeque<ViewHolder> scrap = scraps.get(viewType);
+            return null != scrap ? scrap.size() : 0;
+        }
+
+        public void putRecycledView(ViewHolder scrap) {
+            ArrayDeque<ViewHolder> holders = scraps.get(scrap.mItemViewType);
+            if (null == holders) {
+                holders = new ArrayDeque<>();
+                scraps.put(scrap.mItemViewType, holders);
+            }
+            if (holders.size() < maxScraps.get(scrap.mItemViewType, DEFAULT_MAX_SCRAP)) {
+                holders.addLast(scrap);
+            }
+        }
+
+        @Nullable
+        public ViewHolder getRecycledView(int viewType) {
+            final ArrayDeque<ViewHolder> holders = scraps.get(viewType);
+            return null != holders ? holders.pollLast() : null;
+        }
+
+        public void clear() {
+            scraps.clear();
+        }
+    }
+
+    public abstract static class ViewHolder {
+
+        @NonNull
+        public final View itemView;
+
+        int mPosition = NO_POSITION;
+
+        int mItemViewType = INVALID_TYPE;
+
+        long mItemId = NO_ID;
+
+        public ViewHolder(@NonNull View itemView) {
+            this.itemView = itemView;
+        }
+
+        public final int getLayoutPosition() {
+            return mPosition;
+        }
+
+        public final int getAdapterPosition() {
+            return mPosition;
+        }
+
+        public final int getItemViewType() {
+            return mItemViewType;
+        }
+
+        public final long getItemId() {
+            return mItemId;
+        }
+    }
+
+    public abstract static class AdapterDataObserver {
+        public void onChanged() {
+        }
+
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            onItemRangeChanged(positionStart, itemCount);
+        }
+
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        }
+    }
+
+    public abstract static class Adapter<VH extends ViewHolder> {
+
+        private final List<AdapterDataObserver> observers = new ArrayList<>();
+
+        private boolean hasStableIds;
+
+        @NonNull
+        public abstract VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType);
+
+        public abstract void onBindViewHolder(@NonNull VH holder, int position);
+
+        public void onBindViewHolder(@NonNull VH holder, int position, @NonNull List<Object> payloads) {
+            onBindViewHolder(holder, position);
+        }
+
+        public abstract int getItemCount();
+
+        public int getItemViewType(int position) {
+            return 0;
+        }
+
+        public long getItemId(int position) {
+            return NO_ID;
+        }
+
+        public void setHasStableIds(boolean hasStableIds) {
+            if (hasObservers()) {
+                throw new IllegalStateException("Cannot change whether this adapter has stable IDs while the adapter has registered observers.");
+            }
+            this.hasStableIds = hasStableIds;
+        }
+
+        public final boolean hasStableIds() {
+            return hasStableIds;
+        }
+
+        @NonNull
+        public final VH createViewHolder(@NonNull ViewGroup parent, int viewType) {
+            final VH holder = onCreateViewHolder(parent, viewType);
+            holder.mItemViewType = viewType;
+            return holder;
+        }
+
+        public final void bindViewHolder(@NonNull VH holder, int position) {
+            holder.mPosition = position;
+            if (hasStableIds()) {
+                holder.mItemId = getItemId(position);
+            }
+            onBindViewHolder(holder, position, Collections.emptyList());
+        }
+
+        public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        }
+
+        public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        }
+
+        public void onViewAttachedToWindow(@NonNull VH holder) {
+        }
+
+        public void onViewDetachedFromWindow(@NonNull VH holder) {
+        }
+
+        public void onViewRecycled(@NonNull VH holder) {
+        }
+
+        public void registerAdapterDataObserver(@NonNull AdapterDataObserver observer) {
+            if (observers.contains(observer)) {
+                throw new IllegalStateException("Observer " + observer + " is already registered.");
+            }
+            observers.add(observer);
+        }
+
+        public void unregisterAdapterDataObserver(@NonNull AdapterDataObserver observer) {
+            observers.remove(observer);
+        }
+
+        public final boolean hasObservers() {
+            return !observers.isEmpty();
+        }
+
+        public final void notifyDataSetChanged() {
+            for (int i = observers.size() - 1; i >= 0; i--) {
+                observers.get(i).onChanged();
+            }
+        }
+
+        public final void notifyItemChanged(int position) {
+            notifyItemRangeChanged(position, 1, null);
+        }
+
+        public final void notifyItemChanged(int position, @Nullable Object payload) {
+            notifyItemRangeChanged(position, 1, payload);
+        }
+
+        public final void notifyItemRangeChanged(int positionStart, int itemCount) {
+            notifyItemRangeChanged(positionStart, itemCount, null);
+        }
+
+        public final void notifyItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            for (int i = observers.size() - 1; i >= 0; i--) {
+                observers.get(i).onItemRangeChanged(positionStart, itemCount, payload);
+            }
+        }
+
+        public final void notifyItemInserted(int position) {
+            notifyItemRangeInserted(position, 1);
+        }
+
+        public final void notifyItemRangeInserted(int positionStart, int itemCount) {
+            for (int i = observers.size() - 1; i >= 0; i--) {
+                observers.get(i).onItemRangeInserted(positionStart, itemCount);
+            }
+        }
+
+        public final void notifyItemRemoved(int position) {
+            notifyItemRangeRemoved(position, 1);
+        }
+
+        public final void notifyItemRangeRemoved(int positionStart, int itemCount) {
+            for (int i = observers.size() - 1; i >= 0; i--) {
+                observers.get(i).onItemRangeRemoved(positionStart, itemCount);
+            }
+        }
+
+        public final void notifyItemMoved(int fromPosition, int toPosition) {
+            for (int i = observers.size() - 1; i >= 0; i--) {
+                observers.get(i).onItemRangeMoved(fromPosition, toPosition, 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package androidx.recyclerview.widget;
+
+import android.view.ViewGroup;
+
+/**
+ * 基准测试用的 StaggeredGridLayoutManager 替身
+ */
+public class StaggeredGridLayoutManager extends RecyclerView.LayoutManager {
+
+    public static class LayoutParams extends ViewGroup.LayoutParams {
+        private boolean fullSpan;
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public void setFullSpan(boolean fullSpan) {
+            this.fullSpan = fullSpan;
+        }
+
+        public boolean isFullSpan() {
+            return fullSpan;
+        }
+    }
+}
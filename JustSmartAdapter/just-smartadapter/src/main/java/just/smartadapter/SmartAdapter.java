@@ -3,6 +3,7 @@ package just.smartadapter;
 import android.view.View;
 import android.view.ViewGroup;
 
+import androidx.annotation.IdRes;
 import androidx.annotation.LayoutRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -11,15 +12,25 @@ import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import just.smartadapter.core.AdapterNotifier;
 import just.smartadapter.core.AdapterNotifierOwner;
+import just.smartadapter.core.CachedSpanSizeLookup;
 import just.smartadapter.core.CommonViewHolder;
 import just.smartadapter.core.FixedAdapterNotifier;
+import just.smartadapter.core.ItemIdCollisionChecker;
+import just.smartadapter.core.ItemViewTypeCache;
+import just.smartadapter.core.SharedViewPool;
+import just.smartadapter.core.TypeKeyTable;
+import just.smartadapter.core.ViewHolderPrewarmer;
+import just.smartadapter.wrapper.AdapterWrapper;
 
 /**
  * 多 Item 类型支持的 adapter
@@ -32,12 +43,139 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
     @NonNull
     private final SparseArrayCompat<TypeParam<E>> typeParams = new SparseArrayCompat<>();
 
+    /**
+     * 已解析 itemViewType 的缓存，未开启时为 null
+     */
+    @Nullable
+    private final ItemViewTypeCache itemViewTypeCache;
+
+    /**
+     * item class 到 itemViewType 的映射，没有 type 按 class 分类时为 null
+     */
+    @Nullable
+    private final Map<Class<?>, Integer> classTypes;
+
+    /**
+     * 计算 item 的 type key
+     */
+    @Nullable
+    private final ItemTypeKey<E> itemTypeKey;
+
+    /**
+     * type key 到 itemViewType 的映射，没有 type 按 key 分类时为 null
+     */
+    @Nullable
+    private final TypeKeyTable typeKeyTable;
+
+    /**
+     * 共享的 RecycledViewPool，attach 时设置给 RecyclerView
+     */
+    @Nullable
+    private final SharedViewPool sharedViewPool;
+
+    /**
+     * 计算 item 的 stable id，type 没有单独声明时使用
+     */
+    @Nullable
+    private final ItemIdOf<E> itemIdOf;
+
+    /**
+     * 是否有 type 单独声明了 stable id
+     */
+    private final boolean hasTypeItemIdOf;
+
+    /**
+     * 调试用的 stable id 重复检查，未开启时为 null
+     */
+    @Nullable
+    private final ItemIdCollisionChecker itemIdCollisionChecker;
+
+    /**
+     * 性能指标回调，未开启时为 null
+     */
+    @Nullable
+    private final MetricsListener metricsListener;
+
     public SmartAdapter(@NonNull DataSource<E> dataSource, @NonNull List<TypeParam<E>> typeParams) {
+        this(dataSource, typeParams, new AdapterParam<>(false, null, true, null, null, false, null));
+    }
+
+    public SmartAdapter(@NonNull DataSource<E> dataSource, @NonNull List<TypeParam<E>> typeParams, @NonNull AdapterParam<E> adapterParam) {
         this.dataSource = dataSource;
 
-        /* 将 TypeParam 列表转换成 type 作为 key 的 map. */
+        /* 将 TypeParam 列表转换成 itemViewType 作为 key 的 map. */
+        for (TypeParam<E> typeParam : typeParams) {
+            if (this.typeParams.containsKey(typeParam.viewType)) {
+                throw new IllegalArgumentException("Duplicate item view type: " + typeParam.viewType);
+            }
+            this.typeParams.put(typeParam.viewType, typeParam);
+        }
+
+        /* 将按 class 或 type key 分类的 type 编译成查找表. */
+        final Map<Class<?>, Integer> classTypes = new HashMap<>();
+        final int[] keys = new int[typeParams.size()];
+        final int[] keyTypes = new int[typeParams.size()];
+        int keyCount = 0;
+        for (TypeParam<E> typeParam : typeParams) {
+            if (null != typeParam.itemClass && null != classTypes.put(typeParam.itemClass, typeParam.viewType)) {
+                throw new IllegalArgumentException("Duplicate item class: " + typeParam.itemClass);
+            }
+            if (null != typeParam.typeKey) {
+                keys[keyCount] = typeParam.typeKey;
+                keyTypes[keyCount] = typeParam.viewType;
+                keyCount++;
+            }
+        }
+        if (keyCount > 0 && null == adapterParam.itemTypeKey) {
+            throw new IllegalArgumentException("Type key declared without ItemTypeKey");
+        }
+        this.classTypes = classTypes.isEmpty() ? null : classTypes;
+        this.itemTypeKey = adapterParam.itemTypeKey;
+        this.typeKeyTable = keyCount > 0 ? new TypeKeyTable(Arrays.copyOf(keys, keyCount), Arrays.copyOf(keyTypes, keyCount)) : null;
+
+        this.sharedViewPool = adapterParam.sharedViewPool;
+        this.adapterNotifier = new FixedAdapterNotifier(this, adapterParam.rebindShiftedItems);
+
+        /* 声明了 stable id 时，每个 type 都要能计算 id；setHasStableIds 必须在注册任何 observer 之前调用. */
+        boolean hasTypeItemIdOf = false;
         for (TypeParam<E> typeParam : typeParams) {
-            this.typeParams.put(typeParam.type, typeParam);
+            if (null != typeParam.itemIdOf) {
+                hasTypeItemIdOf = true;
+            }
+        }
+        this.itemIdOf = adapterParam.itemIdOf;
+        this.hasTypeItemIdOf = hasTypeItemIdOf;
+        if (null != adapterParam.itemIdOf || hasTypeItemIdOf) {
+            if (null == adapterParam.itemIdOf) {
+                for (TypeParam<E> typeParam : typeParams) {
+                    if (null == typeParam.itemIdOf) {
+                        throw new IllegalArgumentException("Stable ids declared without idOf for type " + typeParam.type);
+                    }
+                }
+            }
+            setHasStableIds(true);
+        }
+
+        /* observer 按注册的逆序收到通知，先注册 id 检查，保证检查时 itemViewType 缓存已经更新. */
+        if (hasStableIds() && adapterParam.checkItemIdCollision) {
+            this.itemIdCollisionChecker = new ItemIdCollisionChecker(this);
+            registerAdapterDataObserver(this.itemIdCollisionChecker);
+        } else {
+            this.itemIdCollisionChecker = null;
+        }
+
+        /* 开启 itemViewType 缓存，缓存跟随 adapter 自身的 notifyXXX 事件平移或失效. */
+        if (adapterParam.cacheItemViewType) {
+            this.itemViewTypeCache = new ItemViewTypeCache();
+            registerAdapterDataObserver(this.itemViewTypeCache);
+        } else {
+            this.itemViewTypeCache = null;
+        }
+
+        /* 统计通知次数. */
+        this.metricsListener = adapterParam.metricsListener;
+        if (null != this.metricsListener) {
+            registerAdapterDataObserver(new NotifyMetricsObserver(this.metricsListener));
         }
     }
 
@@ -46,18 +184,74 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
         return dataSource.size();
     }
 
+    @Override
+    public long getItemId(int position) {
+        if (!hasStableIds()) {
+            return RecyclerView.NO_ID;
+        }
+        ItemIdOf<E> itemIdOf = this.itemIdOf;
+        if (hasTypeItemIdOf) {
+            final ItemIdOf<E> typeItemIdOf = Objects.requireNonNull(typeParams.get(getItemViewType(position))).itemIdOf;
+            if (null != typeItemIdOf) {
+                itemIdOf = typeItemIdOf;
+            }
+        }
+        return Objects.requireNonNull(itemIdOf).idOf(this.dataSource.get(position));
+    }
+
     @Override
     public int getItemViewType(int position) {
-        /* 遍历 typeParams 以获取对应 position 位置的 item 的 type. */
+        final ItemViewTypeCache cache = this.itemViewTypeCache;
+        if (null == cache) {
+            return resolveItemViewType(position);
+        }
+        int itemViewType = cache.get(position);
+        if (itemViewType == ItemViewTypeCache.UNRESOLVED) {
+            itemViewType = resolveItemViewType(position);
+            cache.put(position, itemViewType);
+        }
+        return itemViewType;
+    }
+
+    private int resolveItemViewType(int position) {
+        final MetricsListener metricsListener = this.metricsListener;
+        if (null == metricsListener) {
+            return matchItemViewType(position);
+        }
+        final long start = System.nanoTime();
+        final int itemViewType = matchItemViewType(position);
+        metricsListener.onResolveItemViewType(Objects.requireNonNull(typeParams.get(itemViewType)).type, System.nanoTime() - start);
+        return itemViewType;
+    }
+
+    /**
+     * 依次按 class、type key 查表获取对应 position 位置的 item 的 type，都未命中时遍历 typeParams 的 filter.
+     */
+    private int matchItemViewType(int position) {
+        final E data = this.dataSource.get(position);
+
+        final Map<Class<?>, Integer> classTypes = this.classTypes;
+        if (null != classTypes) {
+            final Integer itemViewType = classTypes.get(data.getClass());
+            if (null != itemViewType) {
+                return itemViewType;
+            }
+        }
+
+        final TypeKeyTable typeKeyTable = this.typeKeyTable;
+        if (null != typeKeyTable) {
+            final int itemViewType = typeKeyTable.get(Objects.requireNonNull(itemTypeKey).keyOf(data));
+            if (itemViewType != TypeKeyTable.NOT_FOUND) {
+                return itemViewType;
+            }
+        }
+
         final int size = typeParams.size();
         for (int i = 0; i < size; i++) {
             final TypeParam<E> typeParam = typeParams.valueAt(i);
             final ItemTypePredicate<E> filter = typeParam.itemTypePredicate;
-            if (null != filter) {
-                final E data = this.dataSource.get(position);
-                if (filter.test(data, position)) {
-                    return typeParams.keyAt(i);
-                }
+            if (null != filter && filter.test(data, position)) {
+                return typeParams.keyAt(i);
             }
         }
         throw new IllegalArgumentException("No item type matched. position = " + position);
@@ -66,15 +260,30 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
     @NonNull
     @Override
     public CommonViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        final MetricsListener metricsListener = this.metricsListener;
+        final long start = null != metricsListener ? System.nanoTime() : 0;
+
         /* 获取对应 viewType 的 typeParam. */
         final TypeParam<E> typeParam = Objects.requireNonNull(typeParams.get(viewType));
 
         /* 创建 CommonViewHolder. */
         final CommonViewHolder viewHolder = CommonViewHolder.fromInflateLayout(parent.getContext(), typeParam.layoutResId, parent);
+        viewHolder.setCreatedItemViewType(viewType);
 
         /* 修改 ItemView 的宽高尺寸. */
         overrideItemSIze(parent, viewHolder, typeParam.itemWidth, typeParam.itemHeight);
 
+        /* 一次性解析预先声明的 View. */
+        if (null != typeParam.viewIds) {
+            viewHolder.resolveSlots(typeParam.viewIds);
+        }
+
+        /* 创建时一次性安装点击、长按事件分发，绑定时不再创建监听器. */
+        bindItemEventDispatcher(viewHolder, typeParam);
+
+        if (null != metricsListener) {
+            metricsListener.onCreateViewHolder(typeParam.type, System.nanoTime() - start);
+        }
         return viewHolder;
     }
 
@@ -104,89 +313,201 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull CommonViewHolder holder, int position) {
+        final MetricsListener metricsListener = this.metricsListener;
+        final long start = null != metricsListener ? System.nanoTime() : 0;
+
         /* 记录下绑定时的位置信息，因为一些扩展的 adapter 会导致 position 整体偏移，例如 添加了 Header 或 Footer 后，坐标就不准确了. */
         holder.calculatePositionOffset(position);
 
-        final int itemViewType = getItemViewType(position);
-        final TypeParam<E> typeParam = Objects.requireNonNull(typeParams.get(itemViewType));
+        /* holder 创建时已记录了 itemViewType，无需再次解析；被 ConcatAdapter 包装时 holder.getItemViewType() 是包装后的 type. */
+        final TypeParam<E> typeParam = Objects.requireNonNull(typeParams.get(holder.getCreatedItemViewType()));
         final ViewHolderBinder<E> binder = typeParam.viewHolderBinder;
 
+        /* 来自共享 pool 的 holder 可能由声明了其它 viewId 的 adapter 创建，同一个 viewIds 不会重复解析. */
+        if (null != typeParam.viewIds) {
+            holder.resolveSlots(typeParam.viewIds);
+        }
+
         if (null != binder) {
             final E data = this.dataSource.get(position);
-            binder.convert(holder, data, position, itemViewType, this);
-        }
-
-        /*
-         * 设置点击事件
-         */
-        final OnItemClickListener<E> onItemClickListener = typeParam.onItemClickListener;
-        if (null != onItemClickListener) {
-            holder.itemView.setOnClickListener(v -> {
-                /* 点击事件使用修正后的 layoutPosition  */
-                /* 当场景为点击一个 Item 然后删除这个 Item 时，如果使用 adapterPosition，那么 adapterPosition 更新很快，这样 Item 移除动画尚未结束时如果再次触发了，那么会错误地触发该 Item 相邻的 Item 删除，所以点击事件需要使用 layoutPosition. */
-                /* layoutPosition 在动画完成后更新，所以需要进行 size 大小判断，否则在删除尾部元素的场景中很容易就出现数组越界. */
-                /* 还应该对点击过快进行限制. */
-                final int fixedLayoutPosition = holder.getFixedLayoutPosition();
-                if (fixedLayoutPosition >= 0 && fixedLayoutPosition < getItemCount()) {
-                    onItemClickListener.onItemClick(dataSource.get(fixedLayoutPosition), fixedLayoutPosition, holder.getLayoutPosition(), itemViewType, v, this);
-                }
-            });
-        }
-
-        /* 设置长按事件. */
-        final OnItemLongClickListener<E> onItemLongClickListener = typeParam.onItemLongClickListener;
-        if (null != onItemLongClickListener) {
-            holder.itemView.setOnLongClickListener(v -> {
-                final int fixedLayoutPosition = holder.getFixedLayoutPosition();
-                if (fixedLayoutPosition >= 0 && fixedLayoutPosition < getItemCount()) {
-                    return onItemLongClickListener.onItemLongClick(dataSource.get(fixedLayoutPosition), fixedLayoutPosition, holder.getLayoutPosition(), itemViewType, v, this);
-                } else {
-                    return false;
-                }
-            });
+            binder.convert(holder, data, position, typeParam.type, this);
+        }
+
+        /* 更新事件分发器关联的 adapter 和 typeParam，holder 可能来自共享 pool 中其它 adapter 创建的 holder. */
+        bindItemEventDispatcher(holder, typeParam);
+
+        if (null != metricsListener) {
+            metricsListener.onBindViewHolder(typeParam.type, System.nanoTime() - start);
         }
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull CommonViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        /* 只是包装 adapter 中前面的 item 个数变化，数据和本 adapter 中的位置都没有变，只需重新计算位置偏移. */
+        if (isPositionShiftedOnly(payloads)) {
+            holder.calculatePositionOffset(position);
+            return;
+        }
+
+        /* 没有声明局部绑定的 type 仍然完整绑定. */
+        final TypeParam<E> typeParam = Objects.requireNonNull(typeParams.get(holder.getCreatedItemViewType()));
+        final PayloadViewHolderBinder<E> payloadBinder = typeParam.payloadViewHolderBinder;
+        if (null == payloadBinder) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        final MetricsListener metricsListener = this.metricsListener;
+        final long start = null != metricsListener ? System.nanoTime() : 0;
+
+        holder.calculatePositionOffset(position);
+        payloadBinder.convert(holder, this.dataSource.get(position), position, typeParam.type, payloads, this);
+        bindItemEventDispatcher(holder, typeParam);
+
+        if (null != metricsListener) {
+            metricsListener.onBindViewHolder(typeParam.type, System.nanoTime() - start);
+        }
+    }
+
+    private static boolean isPositionShiftedOnly(@NonNull List<Object> payloads) {
+        for (int i = 0; i < payloads.size(); i++) {
+            if (payloads.get(i) != CommonViewHolder.PAYLOAD_POSITION_SHIFTED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 为 holder 安装事件分发器并关联当前 adapter 和 typeParam，每个 holder 只创建一次分发器
+     */
+    private void bindItemEventDispatcher(@NonNull CommonViewHolder holder, @NonNull TypeParam<E> typeParam) {
+        @SuppressWarnings("unchecked")
+        ItemEventDispatcher<E> dispatcher = (ItemEventDispatcher<E>) holder.getItemEventDispatcher();
+        if (null == dispatcher) {
+            if (null == typeParam.onItemClickListener && null == typeParam.onItemLongClickListener) {
+                return;
+            }
+            dispatcher = new ItemEventDispatcher<>(holder);
+            holder.setItemEventDispatcher(dispatcher);
+        }
+        dispatcher.bind(this, typeParam);
+    }
+
     @Override
     public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
         this.dataSource.onAttach(this);
+        if (null != sharedViewPool && recyclerView.getRecycledViewPool() != sharedViewPool) {
+            recyclerView.setRecycledViewPool(sharedViewPool);
+        }
         checkGridSpanSize(recyclerView);
+        startPrewarm(recyclerView);
+        if (null != itemIdCollisionChecker) {
+            itemIdCollisionChecker.check();
+        }
     }
 
     /**
-     * 重设 GridLayoutManager spanSize.
+     * 正在进行的 ViewHolder 预创建
+     */
+    @Nullable
+    private ViewHolderPrewarmer viewHolderPrewarmer;
+
+    /**
+     * 在主线程空闲时预创建声明了 prewarm 的 type 的 ViewHolder
+     * <p>
+     * 预创建的 ViewHolder 以本 adapter 的 itemViewType 放入 pool，只有 RecyclerView 取用时使用同一个 type 才有意义；
+     * 被 ConcatAdapter 等重新映射 type 的 adapter 包装时，只预创建 {@link SharedViewPool} 分配的全局 type
+     */
+    private void startPrewarm(@NonNull RecyclerView recyclerView) {
+        stopPrewarm();
+        final RecyclerView.Adapter<?> attachedAdapter = recyclerView.getAdapter();
+        final boolean viewTypesPreserved = attachedAdapter == this
+                || (attachedAdapter instanceof AdapterWrapper && ((AdapterWrapper) attachedAdapter).getInnermostAdapter() == this);
+        final int size = typeParams.size();
+        final int[] viewTypes = new int[size];
+        final int[] counts = new int[size];
+        int prewarmTypeCount = 0;
+        for (int i = 0; i < size; i++) {
+            final TypeParam<E> typeParam = typeParams.valueAt(i);
+            if (typeParam.prewarmCount > 0 && (viewTypesPreserved || SharedViewPool.isSharedViewType(typeParam.viewType))) {
+                viewTypes[prewarmTypeCount] = typeParam.viewType;
+                counts[prewarmTypeCount] = typeParam.prewarmCount;
+                prewarmTypeCount++;
+            }
+        }
+        if (prewarmTypeCount > 0) {
+            viewHolderPrewarmer = new ViewHolderPrewarmer(recyclerView, this, Arrays.copyOf(viewTypes, prewarmTypeCount), Arrays.copyOf(counts, prewarmTypeCount));
+            viewHolderPrewarmer.start();
+        }
+    }
+
+    private void stopPrewarm() {
+        if (null != viewHolderPrewarmer) {
+            viewHolderPrewarmer.stop();
+            viewHolderPrewarmer = null;
+        }
+    }
+
+    /**
+     * 当前安装在 GridLayoutManager 上的 SpanSizeLookup
+     */
+    @Nullable
+    private CachedSpanSizeLookup spanSizeLookup;
+
+    /**
+     * 重设 GridLayoutManager spanSize，spanSize、spanIndex、spanGroupIndex 都会被缓存，数据变化时只失效变化位置之后的缓存.
      * <p>
      * 注意，RecyclerView 要先设置 LayoutManager，再设置 Adapter，此方法才能生效
      */
     private void checkGridSpanSize(@NonNull RecyclerView recyclerView) {
+        releaseSpanSizeLookup();
         final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
         if ((layoutManager instanceof GridLayoutManager)) {
             final GridLayoutManager gridLayoutManager = (GridLayoutManager) layoutManager;
-            final int spanCount = gridLayoutManager.getSpanCount();
-            final GridLayoutManager.SpanSizeLookup spanSizeLookup = gridLayoutManager.getSpanSizeLookup();
-            gridLayoutManager.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+            final GridLayoutManager.SpanSizeLookup originSpanSizeLookup = gridLayoutManager.getSpanSizeLookup();
+            spanSizeLookup = new CachedSpanSizeLookup(this, gridLayoutManager) {
                 @Override
-                public int getSpanSize(int position) {
-                    /* 通过 position 获取 itemViewType. */
-                    final int itemViewType = getItemViewType(position);
+                protected int computeSpanSize(int position) {
+                    final int spanCount = getSpanCount();
+
+                    /* 通过 position 获取 itemViewType，再通过 ItemViewType 获取 viewType 对应的参数配置. */
+                    final TypeParam<E> typeParam = Objects.requireNonNull(typeParams.get(getItemViewType(position)));
 
-                    /* 通过 ItemViewType 获取 viewType 对应的参数配置. */
-                    final int gridSpanSize = Objects.requireNonNull(typeParams.get(itemViewType)).gridSpanSize;
+                    /* 按 item 计算的 spanSize 优先. */
+                    if (null != typeParam.itemSpanSize) {
+                        return Math.max(1, Math.min(typeParam.itemSpanSize.getSpanSize(dataSource.get(position), position, spanCount), spanCount));
+                    }
 
                     /* 计算 gridSpanSize。 */
-                    if (gridSpanSize > 0) {
-                        return Math.min(gridSpanSize, spanCount);
+                    if (typeParam.gridSpanSize > 0) {
+                        return Math.min(typeParam.gridSpanSize, spanCount);
                     } else {
-                        return spanSizeLookup.getSpanSize(position);
+                        return originSpanSizeLookup.getSpanSize(position);
                     }
                 }
-            });
+            };
+            gridLayoutManager.setSpanSizeLookup(spanSizeLookup);
+        }
+    }
+
+    private void releaseSpanSizeLookup() {
+        if (null != spanSizeLookup) {
+            spanSizeLookup.release();
+            spanSizeLookup = null;
         }
     }
 
     @Override
     public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
         this.dataSource.onDetach(this);
+        stopPrewarm();
+        releaseSpanSizeLookup();
     }
 
     /**
@@ -202,7 +523,7 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
     ///////////////////////////////////////////////////////////////////////////
 
     @NonNull
-    private final AdapterNotifier adapterNotifier = new FixedAdapterNotifier(this);
+    private final AdapterNotifier adapterNotifier;
 
     /**
      * 代替 adapter 原先的 notifyXXX 方法，因为原先的 notify 方法有位置错乱问题
@@ -267,6 +588,15 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
          */
         void refresh(int position);
 
+        /**
+         * 携带 payload 刷新指定位置的 viewHolder，声明了 {@link TypeParamBuilder#onBindPayload(PayloadViewHolderBinder)} 的 type 只做局部绑定
+         * <p>
+         * 默认忽略 payload 整体刷新，会发送通知的数据源应覆盖此方法
+         */
+        default void refresh(int position, @Nullable Object payload) {
+            refresh(position);
+        }
+
         // modify method
 
         /**
@@ -274,6 +604,15 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
          */
         void set(int position, @NonNull E newElement);
 
+        /**
+         * 跟新指定位置的 item，并携带 payload 通知
+         * <p>
+         * 默认忽略 payload，会发送通知的数据源应覆盖此方法
+         */
+        default void set(int position, @NonNull E newElement, @Nullable Object payload) {
+            set(position, newElement);
+        }
+
         /**
          * 添加一个元素
          */
@@ -311,6 +650,8 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
 
         /**
          * 移除符合条件的 item
+         * <p>
+         * filter 收到的 position 为 item 移除前的位置，每个 item 只判断一次
          */
         void removeIf(@NonNull ItemTypePredicate<? super E> filter);
 
@@ -324,6 +665,23 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
          */
         void move(E element, int toPosition);
 
+        /**
+         * 把 [fromPosition, fromPosition + itemCount) 的 item 整体移动，移动后第一个 item 位于 toPosition
+         * <p>
+         * 默认拆分为 itemCount 次单个 item 的移动，底层能整体移动的数据源应覆盖此方法
+         */
+        default void moveRange(int fromPosition, int toPosition, int itemCount) {
+            if (fromPosition < toPosition) {
+                for (int i = 0; i < itemCount; i++) {
+                    move(fromPosition, toPosition + itemCount - 1);
+                }
+            } else if (fromPosition > toPosition) {
+                for (int i = 0; i < itemCount; i++) {
+                    move(fromPosition + i, toPosition + i);
+                }
+            }
+        }
+
         /**
          * 清空
          */
@@ -338,6 +696,27 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
         boolean test(@NonNull T data, int position);
     }
 
+    /**
+     * 计算 item 的 type key，与 {@link TypeParamBuilder#key(int)} 配合使用，按 key 查表分类 item.
+     */
+    public interface ItemTypeKey<T> {
+        int keyOf(@NonNull T data);
+    }
+
+    /**
+     * 计算 item 的 stable id，id 必须在所有 item 中唯一
+     */
+    public interface ItemIdOf<T> {
+        long idOf(@NonNull T data);
+    }
+
+    /**
+     * 按 item 计算 grid 布局下的 spanSize，结果会被限制在 [1, spanCount] 之间
+     */
+    public interface ItemSpanSize<T> {
+        int getSpanSize(@NonNull T data, int position, int spanCount);
+    }
+
     /**
      * item 单击事件监听器
      */
@@ -348,7 +727,7 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
          * @param data           data
          * @param position   data 在数据源中的位置
          * @param layoutPosition data 对应 ItemView 在界面上的位置
-         * @param type           data 对应的 ItemViewType
+         * @param type           data 对应的 type，即 builder 中声明的 type
          * @param view           data 对应的 ItemView
          * @param adapter        adapter
          */
@@ -367,7 +746,7 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
          * @param data           data
          * @param position   data 在数据源中的位置
          * @param layoutPosition data 对应 ItemView 在界面上的位置
-         * @param type           data 对应的 ItemViewType
+         * @param type           data 对应的 type，即 builder 中声明的 type
          * @param view           data 对应的 ItemView
          * @param adapter        adapter
          */
@@ -392,6 +771,204 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
 
     }
 
+    /**
+     * 局部数据绑定，只更新 payload 涉及的控件
+     */
+    public interface PayloadViewHolderBinder<E> {
+        /**
+         * @param payloads 本次绑定合并后的所有 payload，不为空
+         */
+        void convert(@NonNull CommonViewHolder viewHolder, @NonNull E data, int position, int type, @NonNull List<Object> payloads, @NonNull SmartAdapter<E> adapter);
+    }
+
+    /**
+     * adapter 性能指标回调，在主线程调用，实现需要足够轻量
+     * <p>
+     * type 为 builder 中声明的 type，耗时单位为纳秒
+     */
+    public interface MetricsListener {
+
+        /**
+         * notifyDataSetChanged
+         */
+        int NOTIFY_DATA_SET_CHANGED = 0;
+
+        /**
+         * notifyItemChanged、notifyItemRangeChanged
+         */
+        int NOTIFY_ITEM_RANGE_CHANGED = 1;
+
+        /**
+         * notifyItemInserted、notifyItemRangeInserted
+         */
+        int NOTIFY_ITEM_RANGE_INSERTED = 2;
+
+        /**
+         * notifyItemRemoved、notifyItemRangeRemoved
+         */
+        int NOTIFY_ITEM_RANGE_REMOVED = 3;
+
+        /**
+         * notifyItemMoved
+         */
+        int NOTIFY_ITEM_MOVED = 4;
+
+        void onCreateViewHolder(int type, long durationNanos);
+
+        /**
+         * 包括携带 payload 的局部绑定
+         */
+        void onBindViewHolder(int type, long durationNanos);
+
+        /**
+         * 实际执行 type 解析时回调，命中 itemViewType 缓存时不回调
+         */
+        void onResolveItemViewType(int type, long durationNanos);
+
+        /**
+         * @param kind      通知种类，NOTIFY_XXX
+         * @param itemCount 涉及的 item 个数，notifyDataSetChanged 时为通知时的 item 总数
+         */
+        void onNotify(int kind, int itemCount);
+    }
+
+    /**
+     * 将 adapter 的通知转发给 MetricsListener
+     */
+    private final class NotifyMetricsObserver extends RecyclerView.AdapterDataObserver {
+
+        @NonNull
+        private final MetricsListener metricsListener;
+
+        NotifyMetricsObserver(@NonNull MetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+        }
+
+        @Override
+        public void onChanged() {
+            metricsListener.onNotify(MetricsListener.NOTIFY_DATA_SET_CHANGED, getItemCount());
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            metricsListener.onNotify(MetricsListener.NOTIFY_ITEM_RANGE_CHANGED, itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            metricsListener.onNotify(MetricsListener.NOTIFY_ITEM_RANGE_INSERTED, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            metricsListener.onNotify(MetricsListener.NOTIFY_ITEM_RANGE_REMOVED, itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            metricsListener.onNotify(MetricsListener.NOTIFY_ITEM_MOVED, itemCount);
+        }
+    }
+
+    /**
+     * 单击、长按事件分发器，每个 holder 一个，在事件触发时才解析位置和数据
+     */
+    private static final class ItemEventDispatcher<E> implements View.OnClickListener, View.OnLongClickListener {
+
+        @NonNull
+        private final CommonViewHolder holder;
+
+        /**
+         * 最近一次绑定该 holder 的 adapter
+         */
+        @Nullable
+        private SmartAdapter<E> adapter;
+
+        @Nullable
+        private TypeParam<E> typeParam;
+
+        private boolean clickInstalled;
+
+        private boolean longClickInstalled;
+
+        ItemEventDispatcher(@NonNull CommonViewHolder holder) {
+            this.holder = holder;
+        }
+
+        void bind(@NonNull SmartAdapter<E> adapter, @NonNull TypeParam<E> typeParam) {
+            this.adapter = adapter;
+            this.typeParam = typeParam;
+
+            /* 只在首次需要时安装，避免未声明点击事件的 item 变为可点击. */
+            if (!clickInstalled && null != typeParam.onItemClickListener) {
+                holder.itemView.setOnClickListener(this);
+                clickInstalled = true;
+            }
+            if (!longClickInstalled && null != typeParam.onItemLongClickListener) {
+                holder.itemView.setOnLongClickListener(this);
+                longClickInstalled = true;
+            }
+        }
+
+        @Override
+        public void onClick(View v) {
+            final SmartAdapter<E> adapter = this.adapter;
+            final TypeParam<E> typeParam = this.typeParam;
+            if (null == adapter || null == typeParam || null == typeParam.onItemClickListener) {
+                return;
+            }
+            /* 点击事件使用修正后的 layoutPosition，在事件触发时才解析，不依赖绑定时的 position  */
+            /* 当场景为点击一个 Item 然后删除这个 Item 时，如果使用 adapterPosition，那么 adapterPosition 更新很快，这样 Item 移除动画尚未结束时如果再次触发了，那么会错误地触发该 Item 相邻的 Item 删除，所以点击事件需要使用 layoutPosition. */
+            /* layoutPosition 在动画完成后更新，所以需要进行 size 大小判断，否则在删除尾部元素的场景中很容易就出现数组越界. */
+            /* 还应该对点击过快进行限制. */
+            final int fixedLayoutPosition = holder.getFixedLayoutPosition();
+            if (fixedLayoutPosition >= 0 && fixedLayoutPosition < adapter.getItemCount()) {
+                typeParam.onItemClickListener.onItemClick(adapter.dataSource.get(fixedLayoutPosition), fixedLayoutPosition, holder.getLayoutPosition(), typeParam.type, v, adapter);
+            }
+        }
+
+        @Override
+        public boolean onLongClick(View v) {
+            final SmartAdapter<E> adapter = this.adapter;
+            final TypeParam<E> typeParam = this.typeParam;
+            if (null == adapter || null == typeParam || null == typeParam.onItemLongClickListener) {
+                return false;
+            }
+            final int fixedLayoutPosition = holder.getFixedLayoutPosition();
+            if (fixedLayoutPosition >= 0 && fixedLayoutPosition < adapter.getItemCount()) {
+                return typeParam.onItemLongClickListener.onItemLongClick(adapter.dataSource.get(fixedLayoutPosition), fixedLayoutPosition, holder.getLayoutPosition(), typeParam.type, v, adapter);
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 固定尺寸，相同尺寸的实例相等，以便共享 RecycledViewPool 时识别为相同的布局
+     */
+    private static final class FixedItemSize implements ItemSizeRefinery {
+        private final int size;
+
+        FixedItemSize(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int getSize(int originWidth, int originHeight, int parentWidth, int parentHeight) {
+            return size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof FixedItemSize && ((FixedItemSize) o).size == size);
+        }
+
+        @Override
+        public int hashCode() {
+            return size;
+        }
+    }
+
     /**
      * 数据绑定，将数据显示到该类型的 viewHolder
      */
@@ -405,10 +982,15 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
     public static final class TypeParam<E> {
 
         /**
-         * ItemViewType 类型
+         * builder 中声明的 type，回调给使用方
          */
         private final int type;
 
+        /**
+         * 交给 RecyclerView 的 itemViewType，使用共享 RecycledViewPool 时由 pool 按布局分配，否则与 type 相同
+         */
+        private final int viewType;
+
         /**
          * 布局资源 ID
          */
@@ -427,18 +1009,42 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
         @Nullable
         private final ItemSizeRefinery itemHeight;
 
+        /**
+         * 预先声明的 viewId，创建 holder 时解析
+         */
+        @Nullable
+        private final int[] viewIds;
+
         /**
          * 将数据与 viewHolder 绑定
          */
         @Nullable
         private final ViewHolderBinder<E> viewHolderBinder;
 
+        /**
+         * 携带 payload 时的局部绑定
+         */
+        @Nullable
+        private final PayloadViewHolderBinder<E> payloadViewHolderBinder;
+
         /**
          * 判断哪些数据应适用于当前 type
          */
         @Nullable
         private final ItemTypePredicate<E> itemTypePredicate;
 
+        /**
+         * 该 type 对应的 type key，查表分类时使用
+         */
+        @Nullable
+        private final Integer typeKey;
+
+        /**
+         * 该 type 对应的 item class，查表分类时使用
+         */
+        @Nullable
+        private final Class<?> itemClass;
+
         /**
          * item 单击事件回调
          */
@@ -451,30 +1057,124 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
         @Nullable
         private final SmartAdapter.OnItemLongClickListener<E> onItemLongClickListener;
 
+        /**
+         * 该 type 的 item 的 stable id，为 null 时使用 adapter 的 idOf
+         */
+        @Nullable
+        private final ItemIdOf<E> itemIdOf;
+
         /**
          * grid 布局下的 spanSize
          */
         private final int gridSpanSize;
 
-        public TypeParam(
+        /**
+         * grid 布局下按 item 计算的 spanSize，优先于 gridSpanSize
+         */
+        @Nullable
+        private final ItemSpanSize<E> itemSpanSize;
+
+        /**
+         * attach 后预创建的 ViewHolder 个数
+         */
+        private final int prewarmCount;
+
+        /**
+         * 只由 {@link TypeParamBuilder} 创建，参数按位置传递，不对外暴露
+         */
+        TypeParam(
                 int type,
+                int viewType,
                 @LayoutRes int layoutResId,
                 @Nullable ItemSizeRefinery itemWidth,
                 @Nullable ItemSizeRefinery itemHeight,
+                @Nullable int[] viewIds,
                 @Nullable ViewHolderBinder<E> viewHolderBinder,
+                @Nullable PayloadViewHolderBinder<E> payloadViewHolderBinder,
                 @Nullable ItemTypePredicate<E> itemTypePredicate,
+                @Nullable Integer typeKey,
+                @Nullable Class<?> itemClass,
                 @Nullable SmartAdapter.OnItemClickListener<E> onItemClickListener,
                 @Nullable SmartAdapter.OnItemLongClickListener<E> onItemLongClickListener,
-                int gridSpanSize) {
+                @Nullable ItemIdOf<E> itemIdOf,
+                int gridSpanSize,
+                @Nullable ItemSpanSize<E> itemSpanSize,
+                int prewarmCount) {
             this.type = type;
+            this.viewType = viewType;
             this.layoutResId = layoutResId;
             this.itemWidth = itemWidth;
             this.itemHeight = itemHeight;
+            this.viewIds = viewIds;
             this.viewHolderBinder = viewHolderBinder;
+            this.payloadViewHolderBinder = payloadViewHolderBinder;
             this.itemTypePredicate = itemTypePredicate;
+            this.typeKey = typeKey;
+            this.itemClass = itemClass;
             this.onItemClickListener = onItemClickListener;
             this.onItemLongClickListener = onItemLongClickListener;
+            this.itemIdOf = itemIdOf;
             this.gridSpanSize = gridSpanSize;
+            this.itemSpanSize = itemSpanSize;
+            this.prewarmCount = prewarmCount;
+        }
+    }
+
+    /**
+     * 聚合 adapter 参数
+     */
+    public static final class AdapterParam<E> {
+
+        /**
+         * 是否缓存已解析的 itemViewType
+         */
+        private final boolean cacheItemViewType;
+
+        /**
+         * 计算 item 的 type key
+         */
+        @Nullable
+        private final ItemTypeKey<E> itemTypeKey;
+
+        /**
+         * 结构变化后是否重新绑定位置发生偏移的 item
+         */
+        private final boolean rebindShiftedItems;
+
+        /**
+         * 共享的 RecycledViewPool
+         */
+        @Nullable
+        private final SharedViewPool sharedViewPool;
+
+        /**
+         * 计算 item 的 stable id
+         */
+        @Nullable
+        private final ItemIdOf<E> itemIdOf;
+
+        /**
+         * 是否在每次通知后检查 stable id 重复
+         */
+        private final boolean checkItemIdCollision;
+
+        /**
+         * 性能指标回调
+         */
+        @Nullable
+        private final MetricsListener metricsListener;
+
+        /**
+         * 只由 {@link SmartAdapterBuilder} 创建，参数按位置传递，不对外暴露
+         */
+        AdapterParam(boolean cacheItemViewType, @Nullable ItemTypeKey<E> itemTypeKey, boolean rebindShiftedItems, @Nullable SharedViewPool sharedViewPool, @Nullable ItemIdOf<E> itemIdOf, boolean checkItemIdCollision, @Nullable MetricsListener metricsListener) {
+            this.cacheItemViewType = cacheItemViewType;
+            this.itemTypeKey = itemTypeKey;
+            this.rebindShiftedItems = rebindShiftedItems;
+            this.sharedViewPool = sharedViewPool;
+            this.itemIdOf = itemIdOf;
+            this.checkItemIdCollision = checkItemIdCollision;
+            this.metricsListener = metricsListener;
         }
     }
 
@@ -494,10 +1194,97 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
         @NonNull
         private final List<TypeParamBuilder<E>> typeParamBuilders = new LinkedList<>();
 
+        private boolean cacheItemViewType;
+
+        @Nullable
+        private SmartAdapter.ItemTypeKey<E> itemTypeKey;
+
+        private boolean rebindShiftedItems = true;
+
+        @Nullable
+        private SharedViewPool sharedViewPool;
+
+        @Nullable
+        private SmartAdapter.ItemIdOf<E> itemIdOf;
+
+        private boolean checkItemIdCollision;
+
+        @Nullable
+        private SmartAdapter.MetricsListener metricsListener;
+
         private SmartAdapterBuilder(@NonNull SmartAdapter.DataSource<E> dataSource) {
             this.dataSource = dataSource;
         }
 
+        /**
+         * 按位置缓存已解析的 itemViewType，避免重复执行 filter
+         * <p>
+         * 缓存依赖 adapter 的 notifyXXX 事件维护，数据源的每次变更都必须通知 adapter
+         */
+        public SmartAdapterBuilder<E> cacheItemViewType() {
+            this.cacheItemViewType = true;
+            return this;
+        }
+
+        /**
+         * 插入、移除、移动 item 后是否重新绑定位置发生偏移的 item，默认重新绑定
+         * <p>
+         * 点击和长按事件总是在触发时解析 position，如果 ViewHolderBinder 不依赖绑定时的 position，可以关闭以避免整个尾部重新绑定
+         */
+        public SmartAdapterBuilder<E> rebindShiftedItems(boolean rebindShiftedItems) {
+            this.rebindShiftedItems = rebindShiftedItems;
+            return this;
+        }
+
+        /**
+         * 设置计算 item type key 的函数，配合 {@link TypeParamBuilder#key(int)} 按 key 查表分类 item
+         * <p>
+         * 查表未命中时回退到遍历 filter
+         */
+        public SmartAdapterBuilder<E> typeKey(@Nullable SmartAdapter.ItemTypeKey<E> itemTypeKey) {
+            this.itemTypeKey = itemTypeKey;
+            return this;
+        }
+
+        /**
+         * 使用共享的 RecycledViewPool，布局和尺寸调整都相同的 type 在所有使用该 pool 的 adapter 间复用 ViewHolder
+         * <p>
+         * itemViewType 由 pool 按布局分配，回调中的 type 仍为 builder 中声明的 type。
+         * 尺寸调整需要使用同一个实例或 {@link TypeParamBuilder#overrideWidth(int)} 这类固定尺寸才能被识别为相同
+         */
+        public SmartAdapterBuilder<E> sharedPool(@Nullable SharedViewPool sharedViewPool) {
+            this.sharedViewPool = sharedViewPool;
+            return this;
+        }
+
+        /**
+         * 开启 stable id，RecyclerView 在整体刷新时可以按 id 复用原来的 holder
+         * <p>
+         * 也可以通过 {@link TypeParamBuilder#idOf(ItemIdOf)} 按 type 声明，type 的声明优先
+         */
+        public SmartAdapterBuilder<E> idOf(@Nullable SmartAdapter.ItemIdOf<E> itemIdOf) {
+            this.itemIdOf = itemIdOf;
+            return this;
+        }
+
+        /**
+         * 调试用，每次通知后全量检查 stable id 是否重复，重复时抛出异常
+         */
+        public SmartAdapterBuilder<E> checkItemIdCollision(boolean checkItemIdCollision) {
+            this.checkItemIdCollision = checkItemIdCollision;
+            return this;
+        }
+
+        /**
+         * 记录每种 type 的创建、绑定、type 解析耗时以及通知次数，可使用 {@link just.smartadapter.core.AdapterMetrics}
+         * <p>
+         * 未设置时没有任何额外开销
+         */
+        public SmartAdapterBuilder<E> metrics(@Nullable SmartAdapter.MetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+            return this;
+        }
+
         public TypeParamBuilder<E> type(int itemType) {
             final TypeParamBuilder<E> typeParamBuilder = new TypeParamBuilder<>(this, itemType);
             typeParamBuilders.add(typeParamBuilder);
@@ -518,10 +1305,39 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
         public SmartAdapter<E> build() {
             final List<SmartAdapter.TypeParam<E>> typeParams = new ArrayList<>(this.typeParamBuilders.size());
             for (TypeParamBuilder<E> typeParamBuilder : this.typeParamBuilders) {
-                final SmartAdapter.TypeParam<E> typeParam = typeParamBuilder.buildTypeParam();
+                final SmartAdapter.TypeParam<E> typeParam = typeParamBuilder.buildTypeParam(viewTypeOf(typeParamBuilder));
                 typeParams.add(typeParam);
             }
-            return new SmartAdapter<>(dataSource, typeParams);
+            return new SmartAdapter<>(dataSource, typeParams, buildAdapterParam());
+        }
+
+        /**
+         * 未使用共享 pool 时 itemViewType 即 type，否则向 pool 注册布局获取全局的 itemViewType
+         */
+        private int viewTypeOf(@NonNull TypeParamBuilder<E> typeParamBuilder) {
+            final SharedViewPool sharedViewPool = this.sharedViewPool;
+            if (null == sharedViewPool) {
+                return typeParamBuilder.type;
+            }
+
+            /* 同一个 adapter 中布局和尺寸调整都相同的 type 按出现顺序区分. */
+            int ordinal = 0;
+            for (TypeParamBuilder<E> other : this.typeParamBuilders) {
+                if (other == typeParamBuilder) {
+                    break;
+                }
+                if (other.layoutResId == typeParamBuilder.layoutResId
+                        && Objects.equals(other.itemWidth, typeParamBuilder.itemWidth)
+                        && Objects.equals(other.itemHeight, typeParamBuilder.itemHeight)) {
+                    ordinal++;
+                }
+            }
+            return sharedViewPool.register(typeParamBuilder.layoutResId, typeParamBuilder.itemWidth, typeParamBuilder.itemHeight, ordinal);
+        }
+
+        @NonNull
+        private SmartAdapter.AdapterParam<E> buildAdapterParam() {
+            return new SmartAdapter.AdapterParam<>(this.cacheItemViewType, this.itemTypeKey, this.rebindShiftedItems, this.sharedViewPool, this.itemIdOf, this.checkItemIdCollision, this.metricsListener);
         }
     }
 
@@ -543,20 +1359,40 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
         @Nullable
         private SmartAdapter.ItemSizeRefinery itemHeight;
 
+        @Nullable
+        private int[] viewIds;
+
         @Nullable
         private SmartAdapter.ViewHolderBinder<E> viewHolderBinder;
 
+        @Nullable
+        private SmartAdapter.PayloadViewHolderBinder<E> payloadViewHolderBinder;
+
         @Nullable
         private SmartAdapter.ItemTypePredicate<E> itemTypePredicate;
 
+        @Nullable
+        private Integer typeKey;
+
+        @Nullable
+        private Class<?> itemClass;
+
         @Nullable
         private SmartAdapter.OnItemClickListener<E> onItemClickListener;
 
         @Nullable
         private SmartAdapter.OnItemLongClickListener<E> onItemLongClickListener;
 
+        @Nullable
+        private SmartAdapter.ItemIdOf<E> itemIdOf;
+
         private int gridSpanSize;
 
+        @Nullable
+        private SmartAdapter.ItemSpanSize<E> itemSpanSize;
+
+        private int prewarmCount;
+
         private TypeParamBuilder(@NonNull SmartAdapterBuilder<E> master, int itemType) {
             this.master = master;
             this.type = itemType;
@@ -578,11 +1414,21 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
         }
 
         public TypeParamBuilder<E> overrideWidth(int itemWidth) {
-            return overrideWidth((originWidth, originHeight, parentWidth, parentHeight) -> itemWidth);
+            return overrideWidth(new FixedItemSize(itemWidth));
         }
 
         public TypeParamBuilder<E> overrideHeight(int itemHeight) {
-            return overrideHeight((originWidth, originHeight, parentWidth, parentHeight) -> itemHeight);
+            return overrideHeight(new FixedItemSize(itemHeight));
+        }
+
+        /**
+         * 预先声明绑定时用到的 viewId，创建 holder 时一次性解析
+         * <p>
+         * 绑定时可通过 {@link CommonViewHolder#getSlot(int)} 按声明顺序的下标直接访问，getView 也会优先查找这些 View
+         */
+        public TypeParamBuilder<E> views(@IdRes int... viewIds) {
+            this.viewIds = viewIds.length > 0 ? viewIds.clone() : null;
+            return this;
         }
 
         public TypeParamBuilder<E> onBind(@Nullable SmartAdapter.ViewHolderBinder<E> viewHolderBinder) {
@@ -590,11 +1436,35 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
             return this;
         }
 
+        /**
+         * 通知携带 payload 时只执行局部绑定，payload 为空时仍执行 {@link #onBind(ViewHolderBinder)}
+         */
+        public TypeParamBuilder<E> onBindPayload(@Nullable SmartAdapter.PayloadViewHolderBinder<E> payloadViewHolderBinder) {
+            this.payloadViewHolderBinder = payloadViewHolderBinder;
+            return this;
+        }
+
         public TypeParamBuilder<E> filter(@Nullable SmartAdapter.ItemTypePredicate<E> itemTypePredicate) {
             this.itemTypePredicate = itemTypePredicate;
             return this;
         }
 
+        /**
+         * type key 等于 key 的 item 使用该 type，需要配合 {@link SmartAdapterBuilder#typeKey(ItemTypeKey)} 使用
+         */
+        public TypeParamBuilder<E> key(int key) {
+            this.typeKey = key;
+            return this;
+        }
+
+        /**
+         * class 恰好为 itemClass 的 item 使用该 type（不匹配子类）
+         */
+        public TypeParamBuilder<E> ofClass(@Nullable Class<? extends E> itemClass) {
+            this.itemClass = itemClass;
+            return this;
+        }
+
         public TypeParamBuilder<E> onItemClick(@Nullable SmartAdapter.OnItemClickListener<E> onItemClickListener) {
             this.onItemClickListener = onItemClickListener;
             return this;
@@ -605,11 +1475,35 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
             return this;
         }
 
+        /**
+         * 该 type 的 item 的 stable id，覆盖 {@link SmartAdapterBuilder#idOf(ItemIdOf)}
+         */
+        public TypeParamBuilder<E> idOf(@Nullable SmartAdapter.ItemIdOf<E> itemIdOf) {
+            this.itemIdOf = itemIdOf;
+            return this;
+        }
+
         public TypeParamBuilder<E> gridSpanSize(int gridSpanSize) {
             this.gridSpanSize = gridSpanSize;
             return this;
         }
 
+        /**
+         * grid 布局下按 item 计算 spanSize，优先于 {@link #gridSpanSize(int)}；结果会被缓存，item 变化并通知后重新计算
+         */
+        public TypeParamBuilder<E> spanSize(@Nullable SmartAdapter.ItemSpanSize<E> itemSpanSize) {
+            this.itemSpanSize = itemSpanSize;
+            return this;
+        }
+
+        /**
+         * adapter attach 到 RecyclerView 后，利用主线程空闲时间预创建 count 个该 type 的 ViewHolder 放入 RecycledViewPool
+         */
+        public TypeParamBuilder<E> prewarm(int count) {
+            this.prewarmCount = count;
+            return this;
+        }
+
         public TypeParamBuilder<E> type(int itemType) {
             return master.type(itemType);
         }
@@ -624,17 +1518,25 @@ public final class SmartAdapter<E> extends RecyclerView.Adapter<CommonViewHolder
         }
 
         @NonNull
-        private SmartAdapter.TypeParam<E> buildTypeParam() {
+        private SmartAdapter.TypeParam<E> buildTypeParam(int viewType) {
             return new SmartAdapter.TypeParam<>(
                     this.type,
+                    viewType,
                     this.layoutResId,
                     this.itemWidth,
                     this.itemHeight,
+                    this.viewIds,
                     this.viewHolderBinder,
+                    this.payloadViewHolderBinder,
                     this.itemTypePredicate,
+                    this.typeKey,
+                    this.itemClass,
                     this.onItemClickListener,
                     this.onItemLongClickListener,
-                    this.gridSpanSize);
+                    this.itemIdOf,
+                    this.gridSpanSize,
+                    this.itemSpanSize,
+                    this.prewarmCount);
         }
     }
 
@@ -0,0 +1,281 @@
+package just.smartadapter.core;
+
+import androidx.annotation.NonNull;
+import androidx.collection.SparseArrayCompat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import just.smartadapter.SmartAdapter;
+
+/**
+ * 默认的 adapter 性能指标收集器，按 type 记录创建、绑定、type 解析的次数和耗时，按种类记录通知次数
+ * <p>
+ * 耗时使用以 2 为底的对数分桶的直方图记录，每次记录只是数组自增，不分配内存；分位数按桶的上界估算。
+ * 只应在主线程使用
+ */
+public final class AdapterMetrics implements SmartAdapter.MetricsListener {
+
+    private static final String[] NOTIFY_KIND_NAMES = {"dataSetChanged", "rangeChanged", "inserted", "removed", "moved"};
+
+    @NonNull
+    private final SparseArrayCompat<TypeRecorder> typeRecorders = new SparseArrayCompat<>();
+
+    /**
+     * 每种通知的次数
+     */
+    @NonNull
+    private final long[] notifyCounts = new long[NOTIFY_KIND_NAMES.length];
+
+    /**
+     * 每种通知涉及的 item 总数
+     */
+    @NonNull
+    private final long[] notifyItemCounts = new long[NOTIFY_KIND_NAMES.length];
+
+    @Override
+    public void onCreateViewHolder(int type, long durationNanos) {
+        recorderOf(type).create.record(durationNanos);
+    }
+
+    @Override
+    public void onBindViewHolder(int type, long durationNanos) {
+        recorderOf(type).bind.record(durationNanos);
+    }
+
+    @Override
+    public void onResolveItemViewType(int type, long durationNanos) {
+        recorderOf(type).resolve.record(durationNanos);
+    }
+
+    @Override
+    public void onNotify(int kind, int itemCount) {
+        notifyCounts[kind]++;
+        notifyItemCounts[kind] += itemCount;
+    }
+
+    @NonNull
+    private TypeRecorder recorderOf(int type) {
+        TypeRecorder recorder = typeRecorders.get(type);
+        if (null == recorder) {
+            recorder = new TypeRecorder();
+            typeRecorders.put(type, recorder);
+        }
+        return recorder;
+    }
+
+    /**
+     * 清空已记录的指标
+     */
+    public void reset() {
+        typeRecorders.clear();
+        Arrays.fill(notifyCounts, 0);
+        Arrays.fill(notifyItemCounts, 0);
+    }
+
+    /**
+     * 获取当前指标的快照，快照不随之后的记录变化
+     */
+    @NonNull
+    public Snapshot snapshot() {
+        final List<TypeSnapshot> types = new ArrayList<>(typeRecorders.size());
+        for (int i = 0; i < typeRecorders.size(); i++) {
+            final TypeRecorder recorder = typeRecorders.valueAt(i);
+            types.add(new TypeSnapshot(typeRecorders.keyAt(i), recorder.create.copy(), recorder.bind.copy(), recorder.resolve.copy()));
+        }
+        return new Snapshot(Collections.unmodifiableList(types), notifyCounts.clone(), notifyItemCounts.clone());
+    }
+
+    /**
+     * 输出当前指标，便于打印日志
+     */
+    @NonNull
+    public String dump() {
+        return snapshot().toString();
+    }
+
+    private static final class TypeRecorder {
+        final Histogram create = new Histogram();
+        final Histogram bind = new Histogram();
+        final Histogram resolve = new Histogram();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // snapshot
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 耗时直方图，第 i 个桶记录耗时在 [2^(i-1), 2^i) 纳秒的次数，第 0 个桶记录耗时为 0 的次数
+     */
+    public static final class Histogram {
+
+        private static final int BUCKET_COUNT = 64;
+
+        @NonNull
+        private final long[] buckets;
+
+        private long count;
+
+        private long totalNanos;
+
+        private long maxNanos;
+
+        Histogram() {
+            this.buckets = new long[BUCKET_COUNT];
+        }
+
+        private Histogram(@NonNull Histogram origin) {
+            this.buckets = origin.buckets.clone();
+            this.count = origin.count;
+            this.totalNanos = origin.totalNanos;
+            this.maxNanos = origin.maxNanos;
+        }
+
+        void record(long durationNanos) {
+            final long nanos = Math.max(0, durationNanos);
+            buckets[Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(nanos))]++;
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        @NonNull
+        Histogram copy() {
+            return new Histogram(this);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getAverageNanos() {
+            return count > 0 ? totalNanos / count : 0;
+        }
+
+        /**
+         * 估算分位数，返回所在桶的上界，不超过最大值
+         *
+         * @param percentile 0 ~ 100
+         */
+        public long getPercentileNanos(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return i == 0 ? 0 : Math.min(maxNanos, (1L << i) - 1);
+                }
+            }
+            return maxNanos;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "n=%d avg=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus max=%.1fus",
+                    count, micros(getAverageNanos()), micros(getPercentileNanos(50)), micros(getPercentileNanos(90)), micros(getPercentileNanos(99)), micros(maxNanos));
+        }
+
+        private static double micros(long nanos) {
+            return nanos / 1000.0;
+        }
+    }
+
+    /**
+     * 单个 type 的指标
+     */
+    public static final class TypeSnapshot {
+
+        /**
+         * builder 中声明的 type
+         */
+        public final int type;
+
+        @NonNull
+        public final Histogram create;
+
+        @NonNull
+        public final Histogram bind;
+
+        @NonNull
+        public final Histogram resolve;
+
+        TypeSnapshot(int type, @NonNull Histogram create, @NonNull Histogram bind, @NonNull Histogram resolve) {
+            this.type = type;
+            this.create = create;
+            this.bind = bind;
+            this.resolve = resolve;
+        }
+    }
+
+    /**
+     * 指标快照
+     */
+    public static final class Snapshot {
+
+        /**
+         * 按 type 升序排列
+         */
+        @NonNull
+        public final List<TypeSnapshot> types;
+
+        @NonNull
+        private final long[] notifyCounts;
+
+        @NonNull
+        private final long[] notifyItemCounts;
+
+        Snapshot(@NonNull List<TypeSnapshot> types, @NonNull long[] notifyCounts, @NonNull long[] notifyItemCounts) {
+            this.types = types;
+            this.notifyCounts = notifyCounts;
+            this.notifyItemCounts = notifyItemCounts;
+        }
+
+        /**
+         * 某种通知的次数
+         *
+         * @param kind 见 {@link SmartAdapter.MetricsListener} 中的 NOTIFY_XXX
+         */
+        public long getNotifyCount(int kind) {
+            return notifyCounts[kind];
+        }
+
+        /**
+         * 某种通知涉及的 item 总数
+         */
+        public long getNotifyItemCount(int kind) {
+            return notifyItemCounts[kind];
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder();
+            for (TypeSnapshot type : types) {
+                builder.append("type ").append(type.type).append('\n')
+                        .append("  create  ").append(type.create).append('\n')
+                        .append("  bind    ").append(type.bind).append('\n')
+                        .append("  resolve ").append(type.resolve).append('\n');
+            }
+            builder.append("notify");
+            for (int kind = 0; kind < NOTIFY_KIND_NAMES.length; kind++) {
+                builder.append(' ').append(NOTIFY_KIND_NAMES[kind]).append('=').append(notifyCounts[kind]).append('/').append(notifyItemCounts[kind]);
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -26,4 +26,17 @@ public interface AdapterNotifier {
     void notifyItemRemoved(int position);
 
     void notifyItemRangeRemoved(int positionStart, int itemCount);
+
+    /**
+     * 之后直到 {@link #endDeferredUpdates()} 的通知是对已经完成的一组修改的按顺序回放，例如批量修改、diff 结果，
+     * 回放期间数据源已是全部修改完成后的状态，不能按通知中的位置读取当时的 item
+     */
+    default void beginDeferredUpdates() {
+    }
+
+    /**
+     * 回放结束，可以按最终状态读取数据源
+     */
+    default void endDeferredUpdates() {
+    }
 }
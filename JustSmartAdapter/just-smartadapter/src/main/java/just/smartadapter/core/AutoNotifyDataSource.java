@@ -1,10 +1,20 @@
 package just.smartadapter.core;
 
+import android.os.Handler;
+import android.os.Looper;
+
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import just.smartadapter.SmartAdapter;
 
@@ -19,8 +29,51 @@ public class AutoNotifyDataSource<E> implements SmartAdapter.DataSource<E> {
     @NonNull
     private final List<AdapterNotifierOwner> adapterNotifierOwners = new ArrayList<>();
 
+    /**
+     * 判断新旧 item 是否相同，设置后 replace 改为后台 diff 后再精确通知
+     */
+    @Nullable
+    private final DiffUtil.ItemCallback<E> diffItemCallback;
+
+    /**
+     * 执行 diff 计算的线程池
+     */
+    @NonNull
+    private final Executor diffExecutor;
+
+    /**
+     * 回到主线程应用 diff 结果
+     */
+    @Nullable
+    private Handler mainHandler;
+
+    /**
+     * 每次 replace 自增，用于丢弃过期的 diff 任务
+     */
+    private volatile int replaceGeneration;
+
+    /**
+     * diff 尚未完成的 replace 的新数据，diff 完成或被后续修改提前应用后置为 null
+     */
+    @Nullable
+    private List<E> pendingReplaceList;
+
     public AutoNotifyDataSource(@NonNull SmartAdapter.DataSource<E> originDataSource) {
+        this(originDataSource, null);
+    }
+
+    /**
+     * @param diffItemCallback 不为 null 时 replace 在后台线程 diff，完成后回到主线程替换数据并分发最小的 insert、remove、move、change 通知。
+     *                         diff 完成前读取到的仍是旧数据，基于位置的修改会抛出 IllegalStateException，见 {@link #isReplacePending()}
+     */
+    public AutoNotifyDataSource(@NonNull SmartAdapter.DataSource<E> originDataSource, @Nullable DiffUtil.ItemCallback<E> diffItemCallback) {
+        this(originDataSource, diffItemCallback, DiffExecutorHolder.EXECUTOR);
+    }
+
+    public AutoNotifyDataSource(@NonNull SmartAdapter.DataSource<E> originDataSource, @Nullable DiffUtil.ItemCallback<E> diffItemCallback, @NonNull Executor diffExecutor) {
         this.originDataSource = originDataSource;
+        this.diffItemCallback = diffItemCallback;
+        this.diffExecutor = diffExecutor;
     }
 
     @Override
@@ -57,91 +110,417 @@ public class AutoNotifyDataSource<E> implements SmartAdapter.DataSource<E> {
 
     @Override
     public void refresh(@NonNull E element) {
-        originDataSource.refresh(element);
         final int position = originDataSource.positionOf(element);
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemChanged(position));
+        if (position >= 0) {
+            originDataSource.refresh(position);
+            updateCallback().onChanged(position, 1, null);
+        }
     }
 
     @Override
     public void refresh(int position) {
         originDataSource.refresh(position);
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemChanged(position));
+        updateCallback().onChanged(position, 1, null);
+    }
+
+    @Override
+    public void refresh(int position, @Nullable Object payload) {
+        originDataSource.refresh(position, payload);
+        updateCallback().onChanged(position, 1, payload);
     }
 
     @Override
     public void set(int position, @NonNull E newElement) {
+        checkNoPendingReplace();
         originDataSource.set(position, newElement);
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemChanged(position));
+        updateCallback().onChanged(position, 1, null);
+    }
+
+    @Override
+    public void set(int position, @NonNull E newElement, @Nullable Object payload) {
+        checkNoPendingReplace();
+        originDataSource.set(position, newElement, payload);
+        updateCallback().onChanged(position, 1, payload);
     }
 
     @Override
     public void add(@NonNull E element) {
+        applyPendingReplace();
         final int size = originDataSource.size();
         originDataSource.add(element);
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemInserted(size));
+        updateCallback().onInserted(size, 1);
     }
 
     @Override
     public void add(int position, @NonNull E element) {
+        checkNoPendingReplace();
         originDataSource.add(position, element);
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemInserted(position));
+        updateCallback().onInserted(position, 1);
     }
 
     @Override
     public void addAll(@NonNull Collection<? extends E> collection) {
+        applyPendingReplace();
         final int size = originDataSource.size();
         originDataSource.addAll(collection);
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemRangeInserted(size, collection.size()));
+        updateCallback().onInserted(size, collection.size());
     }
 
     @Override
     public void addAll(int position, @NonNull Collection<? extends E> collection) {
+        checkNoPendingReplace();
         originDataSource.addAll(position, collection);
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemRangeInserted(position, collection.size()));/* 追加数据 RecyclerView 会自己滚动到底部. */
+        updateCallback().onInserted(position, collection.size());/* 追加数据 RecyclerView 会自己滚动到底部. */
     }
 
     @Override
     public void replace(@NonNull Collection<? extends E> collection) {
-        originDataSource.replace(collection);
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyDataSetChanged());/* 替换数据 RecyclerView 不会自己滚动到底部. */
+        final DiffUtil.ItemCallback<E> itemCallback = this.diffItemCallback;
+        if (null == itemCallback) {
+            /* 尚未完成的 diff 已被本次替换覆盖. */
+            replaceGeneration++;
+            pendingReplaceList = null;
+            originDataSource.replace(collection);
+            notifyDataSetChanged();/* 替换数据 RecyclerView 不会自己滚动到底部. */
+            return;
+        }
+
+        /* 新的 replace 会使尚未完成的 diff 任务过期. */
+        final int generation = ++replaceGeneration;
+        final List<E> oldList = new ArrayList<>(originDataSource.getAll());
+        final List<E> newList = new ArrayList<>(collection);
+        pendingReplaceList = newList;
+        if (null == mainHandler) {
+            mainHandler = new Handler(Looper.getMainLooper());
+        }
+        final Handler handler = mainHandler;
+        diffExecutor.execute(() -> {
+            if (generation != replaceGeneration) {
+                return;
+            }
+            final DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new SnapshotDiffCallback<>(oldList, newList, itemCallback));
+            handler.post(() -> applyReplace(generation, newList, diffResult));
+        });
+    }
+
+    /**
+     * 在主线程应用 diff 结果
+     */
+    private void applyReplace(int generation, @NonNull List<E> newList, @NonNull DiffUtil.DiffResult diffResult) {
+        if (generation != replaceGeneration) {
+            return;
+        }
+        pendingReplaceList = null;
+        originDataSource.replace(newList);
+        traversalAdapterNotifierOwners(it -> it.getNotifier().beginDeferredUpdates());
+        try {
+            diffResult.dispatchUpdatesTo(updateCallback());
+        } finally {
+            traversalAdapterNotifierOwners(it -> it.getNotifier().endDeferredUpdates());
+        }
+    }
+
+    /**
+     * 是否有 diff 尚未完成的 replace
+     * <p>
+     * 此时 size、get 等读取的仍是 replace 之前的数据，adapter 也尚未收到通知，按读取结果计算的位置与 replace 之后的数据不对应，
+     * 因此 set、add(int, E)、addAll(int, Collection)、removeAt、move、moveRange 等基于位置的修改会抛出 IllegalStateException；
+     * 不依赖位置的 add(E)、addAll(Collection)、remove(E)、removeIf、clear 会先同步应用该 replace 再执行
+     */
+    public boolean isReplacePending() {
+        return null != pendingReplaceList;
+    }
+
+    /**
+     * 基于位置的修改不能在 diff 期间执行，见 {@link #isReplacePending()}
+     */
+    private void checkNoPendingReplace() {
+        if (null != pendingReplaceList) {
+            throw new IllegalStateException("Position-based mutation while a replace is pending, positions read before the diff completes refer to the old data");
+        }
+    }
+
+    /**
+     * diff 期间不依赖位置的修改基于 replace 之后的数据：先同步应用尚未完成的 replace 并整体刷新，使过期的 diff 结果失效，保证后发生的修改不被覆盖
+     */
+    private void applyPendingReplace() {
+        final List<E> newList = pendingReplaceList;
+        if (null == newList) {
+            return;
+        }
+        replaceGeneration++;
+        pendingReplaceList = null;
+        originDataSource.replace(newList);
+        notifyDataSetChanged();
     }
 
     @Override
     public void remove(@NonNull E element) {
+        applyPendingReplace();
         final int position = originDataSource.positionOf(element);
-        originDataSource.remove(element);
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemRemoved(position));
+        if (position < 0) {
+            return;
+        }
+        originDataSource.removeAt(position);
+        updateCallback().onRemoved(position, 1);
     }
 
     @Override
     public void removeAt(int position) {
+        checkNoPendingReplace();
         originDataSource.removeAt(position);
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemRemoved(position));
+        updateCallback().onRemoved(position, 1);
     }
 
     @Override
     public void removeIf(@NonNull SmartAdapter.ItemTypePredicate<? super E> filter) {
-        originDataSource.removeIf(filter);
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyDataSetChanged());
+        applyPendingReplace();
+        final RecordingPredicate<E> recordingFilter = new RecordingPredicate<>(filter);
+        originDataSource.removeIf(recordingFilter);
+        notifyRemovedPositions(recordingFilter.positions, recordingFilter.count);
+    }
+
+    /**
+     * 将被移除的原始位置合并成连续区间，逐个区间通知 notifyItemRangeRemoved
+     */
+    private void notifyRemovedPositions(@NonNull int[] positions, int count) {
+        if (count == 0) {
+            return;
+        }
+        Arrays.sort(positions, 0, count);
+        /* 已通知移除的个数，后续区间的起点需要前移. */
+        int notified = 0;
+        int runStart = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i == count || positions[i] != positions[i - 1] + 1) {
+                final int positionStart = positions[runStart] - notified;
+                final int itemCount = i - runStart;
+                updateCallback().onRemoved(positionStart, itemCount);
+                notified += itemCount;
+                runStart = i;
+            }
+        }
     }
 
     @Override
     public void move(int fromPosition, int toPosition) {
+        checkNoPendingReplace();
         originDataSource.move(fromPosition, toPosition);
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemMoved(fromPosition, toPosition));
+        updateCallback().onMoved(fromPosition, toPosition);
     }
 
     @Override
     public void move(E element, int toPosition) {
-        int fromPosition = positionOf(element);
-        originDataSource.move(element, toPosition);
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemMoved(fromPosition, toPosition));
+        checkNoPendingReplace();
+        final int fromPosition = originDataSource.positionOf(element);
+        if (fromPosition < 0) {
+            return;
+        }
+        originDataSource.move(fromPosition, toPosition);
+        updateCallback().onMoved(fromPosition, toPosition);
+    }
+
+    /**
+     * 由原始数据源整体移动，RecyclerView 只支持单个 item 的移动，通知拆分为 itemCount 次单个 item 的移动
+     */
+    @Override
+    public void moveRange(int fromPosition, int toPosition, int itemCount) {
+        checkNoPendingReplace();
+        originDataSource.moveRange(fromPosition, toPosition, itemCount);
+        final ListUpdateCallback callback = updateCallback();
+        if (fromPosition < toPosition) {
+            for (int i = 0; i < itemCount; i++) {
+                callback.onMoved(fromPosition, toPosition + itemCount - 1);
+            }
+        } else if (fromPosition > toPosition) {
+            for (int i = 0; i < itemCount; i++) {
+                callback.onMoved(fromPosition + i, toPosition + i);
+            }
+        }
     }
 
     @Override
     public void clear() {
+        applyPendingReplace();
         originDataSource.clear();
-        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyDataSetChanged());
+        notifyDataSetChanged();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 批量修改
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 批量修改的嵌套层数
+     */
+    private int batchDepth;
+
+    /**
+     * 批量修改期间暂存的更新操作
+     */
+    @Nullable
+    private PendingUpdates pendingUpdates;
+
+    /**
+     * 在一个事务中批量修改数据源
+     * <p>
+     * 事务期间的通知会被暂存并合并相邻或重叠的区间，最外层事务结束时一次性分发给每个 AdapterNotifierOwner，支持嵌套
+     */
+    public void batch(@NonNull Transaction<E> transaction) {
+        if (batchDepth++ == 0) {
+            pendingUpdates = new PendingUpdates();
+        }
+        try {
+            transaction.run(this);
+        } finally {
+            if (--batchDepth == 0) {
+                final PendingUpdates updates = Objects.requireNonNull(pendingUpdates);
+                pendingUpdates = null;
+                if (!updates.isEmpty()) {
+                    traversalAdapterNotifierOwners(it -> updates.dispatchTo(it.getNotifier()));
+                }
+            }
+        }
+    }
+
+    /**
+     * 批量修改事务
+     */
+    public interface Transaction<E> {
+        void run(@NonNull SmartAdapter.DataSource<E> dataSource);
+    }
+
+    /**
+     * 获取当前的更新通知出口，批量修改期间暂存，否则直接分发
+     */
+    @NonNull
+    private ListUpdateCallback updateCallback() {
+        return null != pendingUpdates ? pendingUpdates : listUpdateCallback;
+    }
+
+    /**
+     * 通知整体刷新
+     */
+    private void notifyDataSetChanged() {
+        if (null != pendingUpdates) {
+            pendingUpdates.onDataSetChanged();
+        } else {
+            traversalAdapterNotifierOwners(it -> it.getNotifier().notifyDataSetChanged());
+        }
+    }
+
+    /**
+     * 将 diff 结果分发给所有 AdapterNotifierOwner
+     */
+    @NonNull
+    private final ListUpdateCallback listUpdateCallback = new ListUpdateCallback() {
+        @Override
+        public void onInserted(int position, int count) {
+            traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemRangeInserted(position, count));
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemRangeRemoved(position, count));
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemMoved(fromPosition, toPosition));
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemRangeChanged(position, count, payload));
+        }
+    };
+
+    /**
+     * 记录被 filter 命中的 item 的原始位置
+     */
+    private static final class RecordingPredicate<E> implements SmartAdapter.ItemTypePredicate<E> {
+
+        @NonNull
+        private final SmartAdapter.ItemTypePredicate<? super E> filter;
+
+        @NonNull
+        private int[] positions = new int[16];
+
+        private int count;
+
+        RecordingPredicate(@NonNull SmartAdapter.ItemTypePredicate<? super E> filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean test(@NonNull E data, int position) {
+            if (!filter.test(data, position)) {
+                return false;
+            }
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = position;
+            return true;
+        }
+    }
+
+    /**
+     * 对新旧两份快照进行 diff
+     */
+    private static final class SnapshotDiffCallback<E> extends DiffUtil.Callback {
+
+        @NonNull
+        private final List<E> oldList;
+
+        @NonNull
+        private final List<E> newList;
+
+        @NonNull
+        private final DiffUtil.ItemCallback<E> itemCallback;
+
+        SnapshotDiffCallback(@NonNull List<E> oldList, @NonNull List<E> newList, @NonNull DiffUtil.ItemCallback<E> itemCallback) {
+            this.oldList = oldList;
+            this.newList = newList;
+            this.itemCallback = itemCallback;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return itemCallback.areItemsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return itemCallback.areContentsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return itemCallback.getChangePayload(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        }
+    }
+
+    /**
+     * 默认的 diff 线程池，首次使用时才创建
+     */
+    private static final class DiffExecutorHolder {
+        static final Executor EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "smartadapter-diff");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @FunctionalInterface
@@ -0,0 +1,207 @@
+package just.smartadapter.core;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * 带缓存的 SpanSizeLookup，缓存每个位置的 spanSize、spanIndex 和 spanGroupIndex
+ * <p>
+ * GridLayoutManager 自带的缓存在任意通知后都会整体失效，本类监听 adapter 的通知，只让变化位置之后的缓存失效；
+ * 由于缓存按位置顺序计算，滚动到很深的位置时也不会再从头计算。因此不要再开启 GridLayoutManager 自带的缓存。
+ * <p>
+ * 不再使用时需要调用 {@link #release()} 取消对 adapter 的监听；只应在主线程使用
+ */
+public abstract class CachedSpanSizeLookup extends GridLayoutManager.SpanSizeLookup {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    @NonNull
+    private final RecyclerView.Adapter<?> adapter;
+
+    @NonNull
+    private final GridLayoutManager gridLayoutManager;
+
+    /**
+     * 缓存对应的 spanCount，spanCount 变化后缓存整体失效
+     */
+    private int cachedSpanCount;
+
+    /**
+     * [0, validCount) 范围内的缓存有效
+     */
+    private int validCount;
+
+    @NonNull
+    private int[] spanSizes = new int[INITIAL_CAPACITY];
+
+    @NonNull
+    private int[] spanIndices = new int[INITIAL_CAPACITY];
+
+    @NonNull
+    private int[] spanGroupIndices = new int[INITIAL_CAPACITY];
+
+    /**
+     * 最后一个有效位置之后的下一个 item 的起始 span 和所在行
+     */
+    private int nextSpanIndex;
+
+    private int nextSpanGroupIndex;
+
+    @NonNull
+    private final RecyclerView.AdapterDataObserver invalidationObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            invalidateFrom(0);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            invalidateFrom(positionStart);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            invalidateFrom(positionStart);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            invalidateFrom(positionStart);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            invalidateFrom(Math.min(fromPosition, toPosition));
+        }
+    };
+
+    /**
+     * @param adapter           提供 item 的 adapter，位置以该 adapter 为准
+     * @param gridLayoutManager 使用该 lookup 的 GridLayoutManager
+     */
+    protected CachedSpanSizeLookup(@NonNull RecyclerView.Adapter<?> adapter, @NonNull GridLayoutManager gridLayoutManager) {
+        this.adapter = adapter;
+        this.gridLayoutManager = gridLayoutManager;
+        this.cachedSpanCount = gridLayoutManager.getSpanCount();
+        adapter.registerAdapterDataObserver(invalidationObserver);
+    }
+
+    /**
+     * 计算对应位置的 spanSize，结果会被缓存，直到该位置或之前的 item 发生变化
+     */
+    protected abstract int computeSpanSize(int position);
+
+    /**
+     * 当前的 spanCount
+     */
+    protected final int getSpanCount() {
+        return gridLayoutManager.getSpanCount();
+    }
+
+    /**
+     * 取消对 adapter 的监听
+     */
+    public void release() {
+        adapter.unregisterAdapterDataObserver(invalidationObserver);
+        invalidateFrom(0);
+    }
+
+    @Override
+    public final int getSpanSize(int position) {
+        ensureCached(position, gridLayoutManager.getSpanCount());
+        return spanSizes[position];
+    }
+
+    @Override
+    public int getSpanIndex(int position, int spanCount) {
+        ensureCached(position, spanCount);
+        return spanIndices[position];
+    }
+
+    @Override
+    public int getSpanGroupIndex(int adapterPosition, int spanCount) {
+        ensureCached(adapterPosition, spanCount);
+        return spanGroupIndices[adapterPosition];
+    }
+
+    /**
+     * GridLayoutManager 在任意通知后都会调用，缓存已经由 adapter 的通知精确失效，这里不再整体失效
+     */
+    @Override
+    public void invalidateSpanIndexCache() {
+    }
+
+    /**
+     * 同 {@link #invalidateSpanIndexCache()}
+     */
+    @Override
+    public void invalidateSpanGroupIndexCache() {
+    }
+
+    /**
+     * 让 position 及之后的缓存失效
+     */
+    private void invalidateFrom(int position) {
+        if (position >= validCount) {
+            return;
+        }
+        validCount = Math.max(0, position);
+        if (validCount == 0) {
+            nextSpanIndex = 0;
+            nextSpanGroupIndex = 0;
+        } else {
+            restoreNextState(validCount - 1);
+        }
+    }
+
+    /**
+     * 根据 position 的缓存恢复下一个 item 的起始状态
+     */
+    private void restoreNextState(int position) {
+        final int spanEnd = spanIndices[position] + spanSizes[position];
+        if (spanEnd >= cachedSpanCount) {
+            /* 占满一行，或单个 item 超出 spanCount 时，下一个 item 换行. */
+            nextSpanIndex = 0;
+            nextSpanGroupIndex = spanGroupIndices[position] + 1;
+        } else {
+            nextSpanIndex = spanEnd;
+            nextSpanGroupIndex = spanGroupIndices[position];
+        }
+    }
+
+    /**
+     * 从第一个无效位置开始依次计算到 position，计算规则与 GridLayoutManager 的 getSpanIndex、getSpanGroupIndex 一致
+     */
+    private void ensureCached(int position, int spanCount) {
+        if (spanCount != cachedSpanCount) {
+            cachedSpanCount = spanCount;
+            invalidateFrom(0);
+        }
+        if (position < validCount) {
+            return;
+        }
+        if (position >= spanSizes.length) {
+            final int capacity = Math.max(position + 1, spanSizes.length * 2);
+            spanSizes = Arrays.copyOf(spanSizes, capacity);
+            spanIndices = Arrays.copyOf(spanIndices, capacity);
+            spanGroupIndices = Arrays.copyOf(spanGroupIndices, capacity);
+        }
+        for (int i = validCount; i <= position; i++) {
+            final int spanSize = computeSpanSize(i);
+            spanSizes[i] = spanSize;
+            if (nextSpanIndex + spanSize > spanCount) {
+                /* 当前行放不下，换行. */
+                spanIndices[i] = 0;
+                spanGroupIndices[i] = nextSpanGroupIndex + 1;
+            } else {
+                spanIndices[i] = nextSpanIndex;
+                spanGroupIndices[i] = nextSpanGroupIndex;
+            }
+            validCount = i + 1;
+            restoreNextState(i);
+        }
+    }
+}
@@ -0,0 +1,679 @@
+package just.smartadapter.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 按块存储元素的 List，内部是一棵记录子树元素个数的 B+ 树
+ * <p>
+ * 元素存放在容量固定的叶子块中，分支节点记录每个子节点的元素个数，按位置的 get、set、add、remove 都是 O(log n)，
+ * 插入和移除只移动所在块内的元素；顺序追加时叶子块保持满载，迭代器逐块顺序读取。
+ * 不是线程安全的，迭代期间修改会抛出 ConcurrentModificationException
+ *
+ * @param <E>
+ */
+public class ChunkedList<E> extends AbstractList<E> {
+
+    /**
+     * 叶子块容量
+     */
+    private static final int LEAF_CAPACITY = 64;
+
+    /**
+     * 分支节点的子节点容量
+     */
+    private static final int BRANCH_CAPACITY = 32;
+
+    /**
+     * 节点的块数量低于该值时尝试与相邻节点合并
+     */
+    private static final int LEAF_MIN = LEAF_CAPACITY / 4;
+
+    private static final int BRANCH_MIN = BRANCH_CAPACITY / 4;
+
+    private abstract static class Node {
+
+        /**
+         * 已使用的槽位数：叶子为元素个数，分支为子节点个数
+         */
+        int count;
+    }
+
+    private static final class Leaf extends Node {
+
+        @NonNull
+        final Object[] items = new Object[LEAF_CAPACITY];
+    }
+
+    private static final class Branch extends Node {
+
+        @NonNull
+        final Node[] children = new Node[BRANCH_CAPACITY];
+
+        /**
+         * 每个子节点的元素个数
+         */
+        @NonNull
+        final int[] sizes = new int[BRANCH_CAPACITY];
+
+        /**
+         * 子树的元素个数
+         */
+        int size;
+    }
+
+    @NonNull
+    private Node root = new Leaf();
+
+    /**
+     * 分支的层数，为 0 时 root 是叶子
+     */
+    private int height;
+
+    private int size;
+
+    public ChunkedList() {
+    }
+
+    public ChunkedList(@NonNull Collection<? extends E> collection) {
+        build(collection.toArray());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public E get(int index) {
+        checkElementIndex(index);
+        Node node = root;
+        for (int level = height; level > 0; level--) {
+            final Branch branch = (Branch) node;
+            int i = 0;
+            while (index >= branch.sizes[i]) {
+                index -= branch.sizes[i++];
+            }
+            node = branch.children[i];
+        }
+        //noinspection unchecked
+        return (E) ((Leaf) node).items[index];
+    }
+
+    @Override
+    public E set(int index, E element) {
+        checkElementIndex(index);
+        Node node = root;
+        for (int level = height; level > 0; level--) {
+            final Branch branch = (Branch) node;
+            int i = 0;
+            while (index >= branch.sizes[i]) {
+                index -= branch.sizes[i++];
+            }
+            node = branch.children[i];
+        }
+        final Object[] items = ((Leaf) node).items;
+        //noinspection unchecked
+        final E old = (E) items[index];
+        items[index] = element;
+        return old;
+    }
+
+    @Override
+    public boolean add(E element) {
+        add(size, element);
+        return true;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        checkPositionIndex(index);
+        final Node split = insert(root, height, index, element);
+        size++;
+        if (null != split) {
+            growRoot(split);
+        }
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(@NonNull Collection<? extends E> collection) {
+        return addAll(size, collection);
+    }
+
+    @Override
+    public boolean addAll(int index, @NonNull Collection<? extends E> collection) {
+        checkPositionIndex(index);
+        final Object[] items = collection.toArray();
+        if (items.length == 0) {
+            return false;
+        }
+        insertAll(index, items);
+        return true;
+    }
+
+    @Override
+    public E remove(int index) {
+        checkElementIndex(index);
+        //noinspection unchecked
+        final E removed = (E) remove(root, height, index);
+        size--;
+        shrinkRoot();
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        final int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("From " + fromIndex + ", to " + toIndex + ", size " + size);
+        }
+        if (fromIndex == toIndex) {
+            return;
+        }
+        if (fromIndex == 0 && toIndex == size) {
+            clear();
+            return;
+        }
+        removeRange(root, height, fromIndex, toIndex);
+        size -= toIndex - fromIndex;
+        shrinkRoot();
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        root = new Leaf();
+        height = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * 把 fromIndex 处的元素移动到 toIndex，语义与先 remove(fromIndex) 再 add(toIndex) 相同
+     */
+    public void move(int fromIndex, int toIndex) {
+        checkElementIndex(fromIndex);
+        checkElementIndex(toIndex);
+        if (fromIndex != toIndex) {
+            add(toIndex, remove(fromIndex));
+        }
+    }
+
+    /**
+     * 把 [fromIndex, fromIndex + count) 的元素整体移动，移动后第一个元素位于 toIndex
+     * <p>
+     * 顺序读出并整段摘除区间是 O(count + log n)，再逐个插入到 toIndex 是 O(count · log n)；count 超过剩余元素个数时整体重建，为 O(n)
+     */
+    public void moveRange(int fromIndex, int toIndex, int count) {
+        if (count < 0 || fromIndex < 0 || fromIndex + count > size || toIndex < 0 || toIndex + count > size) {
+            throw new IndexOutOfBoundsException("From " + fromIndex + ", to " + toIndex + ", count " + count + ", size " + size);
+        }
+        if (fromIndex == toIndex || count == 0) {
+            return;
+        }
+        final Object[] block = new Object[count];
+        final Itr iterator = new Itr(fromIndex);
+        for (int i = 0; i < count; i++) {
+            block[i] = iterator.next();
+        }
+        removeRange(fromIndex, fromIndex + count);
+        insertAll(toIndex, block);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        final Itr iterator = new Itr(0);
+        for (int i = 0; i < size; i++) {
+            final Object element = iterator.next();
+            if (null == o ? null == element : o.equals(element)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @NonNull
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr(0);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 插入
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 插入到以 node 为根的子树，node 放不下时分裂，返回分裂出的右侧节点
+     */
+    private static Node insert(@NonNull Node node, int level, int index, Object element) {
+        if (level == 0) {
+            return insertIntoLeaf((Leaf) node, index, element);
+        }
+        final Branch branch = (Branch) node;
+        final int last = branch.count - 1;
+        int i = 0;
+        /* 恰好位于两个子节点之间时插入到左侧子节点的末尾，顺序追加时左侧块保持满载. */
+        while (i < last && index > branch.sizes[i]) {
+            index -= branch.sizes[i++];
+        }
+        final Node child = branch.children[i];
+        final Node split = insert(child, level - 1, index, element);
+        branch.size++;
+        if (null == split) {
+            branch.sizes[i]++;
+            return null;
+        }
+        branch.sizes[i] = sizeOf(child, level - 1);
+        return insertChild(branch, i + 1, split, sizeOf(split, level - 1));
+    }
+
+    private static Leaf insertIntoLeaf(@NonNull Leaf leaf, int index, Object element) {
+        if (leaf.count < LEAF_CAPACITY) {
+            System.arraycopy(leaf.items, index, leaf.items, index + 1, leaf.count - index);
+            leaf.items[index] = element;
+            leaf.count++;
+            return null;
+        }
+        /* 在块末尾追加时保留左侧满块，否则对半分裂. */
+        final int half = index == LEAF_CAPACITY ? LEAF_CAPACITY : LEAF_CAPACITY / 2;
+        final Leaf right = new Leaf();
+        right.count = LEAF_CAPACITY - half;
+        System.arraycopy(leaf.items, half, right.items, 0, right.count);
+        clear(leaf.items, half, LEAF_CAPACITY);
+        leaf.count = half;
+        if (index <= half && half < LEAF_CAPACITY) {
+            insertIntoLeaf(leaf, index, element);
+        } else {
+            insertIntoLeaf(right, index - half, element);
+        }
+        return right;
+    }
+
+    /**
+     * 在 branch 的 position 处插入子节点，调用前 branch.size 已包含新子节点的元素，放不下时分裂，返回分裂出的右侧节点
+     */
+    private static Branch insertChild(@NonNull Branch branch, int position, @NonNull Node child, int childSize) {
+        if (branch.count < BRANCH_CAPACITY) {
+            System.arraycopy(branch.children, position, branch.children, position + 1, branch.count - position);
+            System.arraycopy(branch.sizes, position, branch.sizes, position + 1, branch.count - position);
+            branch.children[position] = child;
+            branch.sizes[position] = childSize;
+            branch.count++;
+            return null;
+        }
+        final int half = position == BRANCH_CAPACITY ? BRANCH_CAPACITY : BRANCH_CAPACITY / 2;
+        final Branch right = new Branch();
+        right.count = BRANCH_CAPACITY - half;
+        System.arraycopy(branch.children, half, right.children, 0, right.count);
+        System.arraycopy(branch.sizes, half, right.sizes, 0, right.count);
+        clear(branch.children, half, BRANCH_CAPACITY);
+        branch.count = half;
+        if (position <= half && half < BRANCH_CAPACITY) {
+            insertChild(branch, position, child, childSize);
+        } else {
+            insertChild(right, position - half, child, childSize);
+        }
+        right.size = sum(right.sizes, right.count);
+        branch.size -= right.size;
+        return right;
+    }
+
+    /**
+     * 插入一段元素，数量超过已有元素时整体重建，否则逐个插入
+     */
+    private void insertAll(int index, @NonNull Object[] items) {
+        if (items.length > size) {
+            final Object[] all = new Object[size + items.length];
+            final Itr iterator = new Itr(0);
+            for (int i = 0; i < index; i++) {
+                all[i] = iterator.next();
+            }
+            System.arraycopy(items, 0, all, index, items.length);
+            for (int i = index + items.length; i < all.length; i++) {
+                all[i] = iterator.next();
+            }
+            build(all);
+        } else {
+            for (Object item : items) {
+                //noinspection unchecked
+                add(index++, (E) item);
+            }
+        }
+        modCount++;
+    }
+
+    private void growRoot(@NonNull Node split) {
+        final Branch newRoot = new Branch();
+        newRoot.children[0] = root;
+        newRoot.sizes[0] = sizeOf(root, height);
+        newRoot.children[1] = split;
+        newRoot.sizes[1] = sizeOf(split, height);
+        newRoot.count = 2;
+        newRoot.size = size;
+        root = newRoot;
+        height++;
+    }
+
+    /**
+     * 自底向上构建满载的树
+     */
+    private void build(@NonNull Object[] items) {
+        final int total = items.length;
+        if (total == 0) {
+            root = new Leaf();
+            height = 0;
+            size = 0;
+            return;
+        }
+        int count = (total + LEAF_CAPACITY - 1) / LEAF_CAPACITY;
+        Node[] nodes = new Node[count];
+        int[] sizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            final Leaf leaf = new Leaf();
+            final int start = i * LEAF_CAPACITY;
+            leaf.count = Math.min(LEAF_CAPACITY, total - start);
+            System.arraycopy(items, start, leaf.items, 0, leaf.count);
+            nodes[i] = leaf;
+            sizes[i] = leaf.count;
+        }
+        int level = 0;
+        while (count > 1) {
+            final int parentCount = (count + BRANCH_CAPACITY - 1) / BRANCH_CAPACITY;
+            final Node[] parents = new Node[parentCount];
+            final int[] parentSizes = new int[parentCount];
+            for (int i = 0; i < parentCount; i++) {
+                final Branch branch = new Branch();
+                final int start = i * BRANCH_CAPACITY;
+                branch.count = Math.min(BRANCH_CAPACITY, count - start);
+                System.arraycopy(nodes, start, branch.children, 0, branch.count);
+                System.arraycopy(sizes, start, branch.sizes, 0, branch.count);
+                branch.size = sum(branch.sizes, branch.count);
+                parents[i] = branch;
+                parentSizes[i] = branch.size;
+            }
+            nodes = parents;
+            sizes = parentSizes;
+            count = parentCount;
+            level++;
+        }
+        root = nodes[0];
+        height = level;
+        size = total;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 移除
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static Object remove(@NonNull Node node, int level, int index) {
+        if (level == 0) {
+            final Leaf leaf = (Leaf) node;
+            final Object removed = leaf.items[index];
+            System.arraycopy(leaf.items, index + 1, leaf.items, index, leaf.count - index - 1);
+            leaf.items[--leaf.count] = null;
+            return removed;
+        }
+        final Branch branch = (Branch) node;
+        int i = 0;
+        while (index >= branch.sizes[i]) {
+            index -= branch.sizes[i++];
+        }
+        final Object removed = remove(branch.children[i], level - 1, index);
+        branch.sizes[i]--;
+        branch.size--;
+        if (branch.children[i].count < minCount(level - 1)) {
+            mergeWithNeighbour(branch, i, level - 1);
+        }
+        return removed;
+    }
+
+    /**
+     * 移除子树中 [fromIndex, toIndex) 的元素，完全落在范围内的子节点直接摘除
+     */
+    private static void removeRange(@NonNull Node node, int level, int fromIndex, int toIndex) {
+        if (level == 0) {
+            final Leaf leaf = (Leaf) node;
+            System.arraycopy(leaf.items, toIndex, leaf.items, fromIndex, leaf.count - toIndex);
+            final int newCount = leaf.count - (toIndex - fromIndex);
+            clear(leaf.items, newCount, leaf.count);
+            leaf.count = newCount;
+            return;
+        }
+        final Branch branch = (Branch) node;
+        int kept = 0;
+        int offset = 0;
+        for (int i = 0; i < branch.count; i++) {
+            final Node child = branch.children[i];
+            final int childSize = branch.sizes[i];
+            final int start = Math.max(fromIndex, offset) - offset;
+            final int end = Math.min(toIndex, offset + childSize) - offset;
+            offset += childSize;
+            if (start == 0 && end == childSize && childSize > 0) {
+                /* 整个子节点都在范围内. */
+                continue;
+            }
+            if (start < end) {
+                removeRange(child, level - 1, start, end);
+            }
+            branch.children[kept] = child;
+            branch.sizes[kept] = childSize - Math.max(0, end - start);
+            kept++;
+        }
+        clear(branch.children, kept, branch.count);
+        branch.count = kept;
+        branch.size -= toIndex - fromIndex;
+        /* 范围两端被部分移除的子节点可能过小. */
+        for (int i = 0; i < branch.count && branch.count > 1; ) {
+            if (branch.children[i].count < minCount(level - 1) && mergeWithNeighbour(branch, i, level - 1)) {
+                continue;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * 把 branch 的第 i 个子节点与相邻的子节点合并，合并后放不下时不做处理
+     */
+    private static boolean mergeWithNeighbour(@NonNull Branch branch, int i, int childLevel) {
+        if (branch.count < 2) {
+            return false;
+        }
+        final int left = i > 0 ? i - 1 : i;
+        final int right = left + 1;
+        final Node leftNode = branch.children[left];
+        final Node rightNode = branch.children[right];
+        if (leftNode.count + rightNode.count > (childLevel == 0 ? LEAF_CAPACITY : BRANCH_CAPACITY)) {
+            return false;
+        }
+        if (childLevel == 0) {
+            final Leaf leftLeaf = (Leaf) leftNode;
+            System.arraycopy(((Leaf) rightNode).items, 0, leftLeaf.items, leftLeaf.count, rightNode.count);
+        } else {
+            final Branch leftBranch = (Branch) leftNode;
+            final Branch rightBranch = (Branch) rightNode;
+            System.arraycopy(rightBranch.children, 0, leftBranch.children, leftBranch.count, rightBranch.count);
+            System.arraycopy(rightBranch.sizes, 0, leftBranch.sizes, leftBranch.count, rightBranch.count);
+            leftBranch.size += rightBranch.size;
+        }
+        leftNode.count += rightNode.count;
+        branch.sizes[left] += branch.sizes[right];
+        System.arraycopy(branch.children, right + 1, branch.children, right, branch.count - right - 1);
+        System.arraycopy(branch.sizes, right + 1, branch.sizes, right, branch.count - right - 1);
+        branch.children[--branch.count] = null;
+        return true;
+    }
+
+    /**
+     * 根节点只剩一个子节点时降低树高
+     */
+    private void shrinkRoot() {
+        while (height > 0 && root.count == 1) {
+            root = ((Branch) root).children[0];
+            height--;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 工具
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static int sizeOf(@NonNull Node node, int level) {
+        return level == 0 ? node.count : ((Branch) node).size;
+    }
+
+    private static int minCount(int level) {
+        return level == 0 ? LEAF_MIN : BRANCH_MIN;
+    }
+
+    private static int sum(@NonNull int[] values, int count) {
+        int sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    private static void clear(@NonNull Object[] array, int from, int to) {
+        for (int i = from; i < to; i++) {
+            array[i] = null;
+        }
+    }
+
+    private void checkElementIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+    }
+
+    private void checkPositionIndex(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+    }
+
+    /**
+     * 记录从根到当前叶子的路径，逐块顺序读取；remove 后按位置重新定位
+     */
+    private final class Itr implements Iterator<E> {
+
+        @NonNull
+        private Branch[] branches = new Branch[0];
+
+        @NonNull
+        private int[] childIndices = new int[0];
+
+        private Leaf leaf;
+
+        /**
+         * 下一个元素在 leaf 中的位置
+         */
+        private int offset;
+
+        /**
+         * 下一个元素的位置
+         */
+        private int cursor;
+
+        private int lastReturned = -1;
+
+        private int expectedModCount;
+
+        Itr(int position) {
+            seek(position);
+        }
+
+        private void seek(int position) {
+            expectedModCount = modCount;
+            cursor = position;
+            if (branches.length != height) {
+                branches = new Branch[height];
+                childIndices = new int[height];
+            }
+            Node node = root;
+            int index = position;
+            for (int depth = 0; depth < height; depth++) {
+                final Branch branch = (Branch) node;
+                int i = 0;
+                /* 定位到末尾时停在最后一个子节点. */
+                while (i < branch.count - 1 && index >= branch.sizes[i]) {
+                    index -= branch.sizes[i++];
+                }
+                branches[depth] = branch;
+                childIndices[depth] = i;
+                node = branch.children[i];
+            }
+            leaf = (Leaf) node;
+            offset = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        @Override
+        public E next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (cursor >= size) {
+                throw new NoSuchElementException();
+            }
+            while (offset >= leaf.count) {
+                nextLeaf();
+            }
+            lastReturned = cursor++;
+            //noinspection unchecked
+            return (E) leaf.items[offset++];
+        }
+
+        private void nextLeaf() {
+            int depth = height - 1;
+            while (childIndices[depth] + 1 >= branches[depth].count) {
+                depth--;
+            }
+            Node node = branches[depth].children[++childIndices[depth]];
+            for (depth++; depth < height; depth++) {
+                branches[depth] = (Branch) node;
+                childIndices[depth] = 0;
+                node = ((Branch) node).children[0];
+            }
+            leaf = (Leaf) node;
+            offset = 0;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            ChunkedList.this.remove(lastReturned);
+            seek(lastReturned);
+            lastReturned = -1;
+        }
+    }
+}
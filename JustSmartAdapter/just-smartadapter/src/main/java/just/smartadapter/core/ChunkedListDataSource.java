@@ -0,0 +1,75 @@
+package just.smartadapter.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+
+import just.smartadapter.SmartAdapter;
+
+/**
+ * 使用 {@link ChunkedList} 实现的数据源，适合数据量大且经常在中间插入、移除、移动的列表
+ * <p>
+ * 按位置的 get、add、remove、move 都是 O(log n)，不会像 ArrayList 那样移动整个尾部
+ *
+ * @param <E>
+ */
+public class ChunkedListDataSource<E> extends ListDataSource<E> {
+
+    @NonNull
+    private final ChunkedList<E> list;
+
+    public ChunkedListDataSource() {
+        this(Collections.<E>emptyList());
+    }
+
+    public ChunkedListDataSource(@NonNull Collection<? extends E> collection) {
+        this(new ChunkedList<E>(collection));
+    }
+
+    private ChunkedListDataSource(@NonNull ChunkedList<E> list) {
+        super(list);
+        this.list = list;
+    }
+
+    @Override
+    public void removeIf(@NonNull SmartAdapter.ItemTypePredicate<? super E> filter) {
+        /* 顺序遍历一次，保留的元素整体重建，避免逐个移除. */
+        final int size = list.size();
+        final ArrayList<E> kept = new ArrayList<>(size);
+        final Iterator<E> iterator = list.iterator();
+        for (int i = 0; i < size; i++) {
+            final E element = iterator.next();
+            if (!filter.test(element, i)) {
+                kept.add(element);
+            }
+        }
+        if (kept.size() < size) {
+            list.clear();
+            list.addAll(kept);
+        }
+    }
+
+    @Override
+    public void move(int fromPosition, int toPosition) {
+        list.move(fromPosition, toPosition);
+    }
+
+    @Override
+    public void move(E element, int toPosition) {
+        final int fromPosition = list.indexOf(element);
+        if (fromPosition >= 0) {
+            list.move(fromPosition, toPosition);
+        }
+    }
+
+    /**
+     * 整段摘除后再插入，不逐个调用 move，复杂度见 {@link ChunkedList#moveRange(int, int, int)}
+     */
+    @Override
+    public void moveRange(int fromPosition, int toPosition, int itemCount) {
+        list.moveRange(fromPosition, toPosition, itemCount);
+    }
+}
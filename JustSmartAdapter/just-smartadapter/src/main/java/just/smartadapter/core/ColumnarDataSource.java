@@ -0,0 +1,633 @@
+package just.smartadapter.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import just.smartadapter.SmartAdapter;
+
+/**
+ * 按列存储的数据源，适合字段以 long、int、double 为主的大量数据
+ * <p>
+ * 每一列是一个基本类型数组，没有逐行的对象和装箱。get 返回的是可复用的 {@link Row} 游标，只在下一次 get 之前有效，
+ * 不要持有它；getAll 返回的视图使用另一个游标。修改后由数据源自己通知 adapter，不需要再用 AutoNotifyDataSource 包装；
+ * 通过 setLong、setInt、setDouble 修改单个字段时以列为 payload 通知，配合 onBindPayload 只更新对应的控件。
+ * 只应在主线程使用
+ */
+public class ColumnarDataSource implements SmartAdapter.DataSource<ColumnarDataSource.Row> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    @NonNull
+    private final List<AdapterNotifierOwner> adapterNotifierOwners = new ArrayList<>();
+
+    @NonNull
+    private long[][] longColumns = new long[0][];
+
+    @NonNull
+    private int[][] intColumns = new int[0][];
+
+    @NonNull
+    private double[][] doubleColumns = new double[0][];
+
+    private int capacity = INITIAL_CAPACITY;
+
+    private int size;
+
+    /**
+     * get 返回的游标
+     */
+    @NonNull
+    private final Row cursor = new Row(this);
+
+    /**
+     * 列的标识，同时作为修改字段时通知的 payload
+     */
+    public abstract static class Column {
+
+        /**
+         * 在同类型列中的序号
+         */
+        final int index;
+
+        @NonNull
+        private final String name;
+
+        Column(int index, @NonNull String name) {
+            this.index = index;
+            this.name = name;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    public static final class LongColumn extends Column {
+        LongColumn(int index, @NonNull String name) {
+            super(index, name);
+        }
+    }
+
+    public static final class IntColumn extends Column {
+        IntColumn(int index, @NonNull String name) {
+            super(index, name);
+        }
+    }
+
+    public static final class DoubleColumn extends Column {
+        DoubleColumn(int index, @NonNull String name) {
+            super(index, name);
+        }
+    }
+
+    /**
+     * 指向数据源中某一行的游标，读取的是该行当前的字段值
+     */
+    public static final class Row {
+
+        @NonNull
+        private final ColumnarDataSource source;
+
+        private int position;
+
+        Row(@NonNull ColumnarDataSource source) {
+            this.source = source;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public long getLong(@NonNull LongColumn column) {
+            return source.longColumns[column.index][position];
+        }
+
+        public int getInt(@NonNull IntColumn column) {
+            return source.intColumns[column.index][position];
+        }
+
+        public double getDouble(@NonNull DoubleColumn column) {
+            return source.doubleColumns[column.index][position];
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 列
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 添加一个 long 列，已有行的该字段为 0
+     */
+    @NonNull
+    public LongColumn addLongColumn(@NonNull String name) {
+        longColumns = Arrays.copyOf(longColumns, longColumns.length + 1);
+        longColumns[longColumns.length - 1] = new long[capacity];
+        return new LongColumn(longColumns.length - 1, name);
+    }
+
+    /**
+     * 添加一个 int 列，已有行的该字段为 0
+     */
+    @NonNull
+    public IntColumn addIntColumn(@NonNull String name) {
+        intColumns = Arrays.copyOf(intColumns, intColumns.length + 1);
+        intColumns[intColumns.length - 1] = new int[capacity];
+        return new IntColumn(intColumns.length - 1, name);
+    }
+
+    /**
+     * 添加一个 double 列，已有行的该字段为 0
+     */
+    @NonNull
+    public DoubleColumn addDoubleColumn(@NonNull String name) {
+        doubleColumns = Arrays.copyOf(doubleColumns, doubleColumns.length + 1);
+        doubleColumns[doubleColumns.length - 1] = new double[capacity];
+        return new DoubleColumn(doubleColumns.length - 1, name);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 按字段读写
+    ///////////////////////////////////////////////////////////////////////////
+
+    public long getLong(int position, @NonNull LongColumn column) {
+        checkPosition(position);
+        return longColumns[column.index][position];
+    }
+
+    public int getInt(int position, @NonNull IntColumn column) {
+        checkPosition(position);
+        return intColumns[column.index][position];
+    }
+
+    public double getDouble(int position, @NonNull DoubleColumn column) {
+        checkPosition(position);
+        return doubleColumns[column.index][position];
+    }
+
+    /**
+     * 修改一个字段，值变化时以 column 为 payload 通知该位置变化
+     */
+    public void setLong(int position, @NonNull LongColumn column, long value) {
+        checkPosition(position);
+        final long[] values = longColumns[column.index];
+        if (values[position] != value) {
+            values[position] = value;
+            notifyColumnChanged(position, column);
+        }
+    }
+
+    /**
+     * 同 {@link #setLong(int, LongColumn, long)}
+     */
+    public void setInt(int position, @NonNull IntColumn column, int value) {
+        checkPosition(position);
+        final int[] values = intColumns[column.index];
+        if (values[position] != value) {
+            values[position] = value;
+            notifyColumnChanged(position, column);
+        }
+    }
+
+    /**
+     * 同 {@link #setLong(int, LongColumn, long)}，按位比较，NaN 与 NaN 视为相等
+     */
+    public void setDouble(int position, @NonNull DoubleColumn column, double value) {
+        checkPosition(position);
+        final double[] values = doubleColumns[column.index];
+        if (Double.doubleToLongBits(values[position]) != Double.doubleToLongBits(value)) {
+            values[position] = value;
+            notifyColumnChanged(position, column);
+        }
+    }
+
+    /**
+     * 在末尾追加一行，各字段为 0，返回新行的位置
+     */
+    public int appendRow() {
+        return insertRow(size);
+    }
+
+    /**
+     * 在 position 处插入一行，各字段为 0
+     */
+    public int insertRow(int position) {
+        if (position < 0 || position > size) {
+            throw new IndexOutOfBoundsException("position = " + position + ", size = " + size);
+        }
+        openGap(position, 1);
+        clearRows(position, position + 1);
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemInserted(position));
+        return position;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // DataSource
+    ///////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onAttach(@NonNull AdapterNotifierOwner owner) {
+        adapterNotifierOwners.add(owner);
+    }
+
+    @Override
+    public void onDetach(@NonNull AdapterNotifierOwner owner) {
+        adapterNotifierOwners.remove(owner);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 返回指向 position 的游标，每次调用都返回同一个对象
+     */
+    @NonNull
+    @Override
+    public Row get(int position) {
+        checkPosition(position);
+        cursor.position = position;
+        return cursor;
+    }
+
+    /**
+     * 只读视图，迭代时使用单独的游标
+     */
+    @NonNull
+    @Override
+    public Collection<Row> getAll() {
+        return new AbstractList<Row>() {
+
+            @NonNull
+            private final Row viewCursor = new Row(ColumnarDataSource.this);
+
+            @Override
+            public Row get(int index) {
+                checkPosition(index);
+                viewCursor.position = index;
+                return viewCursor;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * 本数据源的游标返回其当前位置，其它 Row 返回 -1
+     */
+    @Override
+    public int positionOf(@NonNull Row element) {
+        return element.source == this && element.position < size ? element.position : -1;
+    }
+
+    @Override
+    public void refresh(@NonNull Row element) {
+        final int position = positionOf(element);
+        if (position >= 0) {
+            refresh(position);
+        }
+    }
+
+    @Override
+    public void refresh(int position) {
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemChanged(position));
+    }
+
+    @Override
+    public void refresh(int position, @Nullable Object payload) {
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemChanged(position, payload));
+    }
+
+    /**
+     * 复制 newElement 指向的行的所有字段，newElement 可以来自列结构相同的其它 ColumnarDataSource
+     */
+    @Override
+    public void set(int position, @NonNull Row newElement) {
+        set(position, newElement, null);
+    }
+
+    @Override
+    public void set(int position, @NonNull Row newElement, @Nullable Object payload) {
+        checkPosition(position);
+        checkRow(newElement);
+        copyRow(newElement, position);
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemChanged(position, payload));
+    }
+
+    @Override
+    public void add(@NonNull Row element) {
+        add(size, element);
+    }
+
+    @Override
+    public void add(int position, @NonNull Row element) {
+        if (position < 0 || position > size) {
+            throw new IndexOutOfBoundsException("position = " + position + ", size = " + size);
+        }
+        checkRow(element);
+        /* element 可能指向本数据源中会被移动的行，先记下原位置. */
+        final int sourcePosition = element.source == this && element.position >= position ? element.position + 1 : element.position;
+        openGap(position, 1);
+        copyRow(element.source, sourcePosition, position);
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemInserted(position));
+    }
+
+    @Override
+    public void addAll(@NonNull Collection<? extends Row> collection) {
+        addAll(size, collection);
+    }
+
+    @Override
+    public void addAll(int position, @NonNull Collection<? extends Row> collection) {
+        if (position < 0 || position > size) {
+            throw new IndexOutOfBoundsException("position = " + position + ", size = " + size);
+        }
+        final int itemCount = collection.size();
+        if (itemCount == 0) {
+            return;
+        }
+        /* 先校验所有行，校验失败时数据保持不变. */
+        for (Row row : collection) {
+            if (row.source == this) {
+                throw new IllegalArgumentException("Cannot add rows of the same ColumnarDataSource in bulk");
+            }
+            checkRow(row);
+        }
+        openGap(position, itemCount);
+        int target = position;
+        for (Row row : collection) {
+            copyRow(row, target++);
+        }
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemRangeInserted(position, itemCount));
+    }
+
+    @Override
+    public void replace(@NonNull Collection<? extends Row> collection) {
+        /* 先校验所有行，校验失败时数据保持不变. */
+        for (Row row : collection) {
+            if (row.source == this) {
+                throw new IllegalArgumentException("Cannot replace with rows of the same ColumnarDataSource");
+            }
+            checkRow(row);
+        }
+        clearRows(0, size);
+        size = 0;
+        openGap(0, collection.size());
+        int target = 0;
+        for (Row row : collection) {
+            copyRow(row, target++);
+        }
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyDataSetChanged());
+    }
+
+    @Override
+    public void remove(@NonNull Row element) {
+        final int position = positionOf(element);
+        if (position >= 0) {
+            removeAt(position);
+        }
+    }
+
+    @Override
+    public void removeAt(int position) {
+        checkPosition(position);
+        closeGap(position, 1);
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemRemoved(position));
+    }
+
+    @Override
+    public void removeIf(@NonNull SmartAdapter.ItemTypePredicate<? super Row> filter) {
+        /* 单次遍历压缩各列，记录被移除的连续区间，压缩完成后按移除后的位置依次通知. */
+        final Row testCursor = new Row(this);
+        final int oldSize = size;
+        int[] removedRuns = new int[8];
+        int runCount = 0;
+        int kept = 0;
+        for (int i = 0; i < oldSize; i++) {
+            testCursor.position = i;
+            if (filter.test(testCursor, i)) {
+                if (runCount > 0 && removedRuns[runCount * 2 - 2] == kept) {
+                    removedRuns[runCount * 2 - 1]++;
+                } else {
+                    if (runCount * 2 == removedRuns.length) {
+                        removedRuns = Arrays.copyOf(removedRuns, removedRuns.length * 2);
+                    }
+                    removedRuns[runCount * 2] = kept;
+                    removedRuns[runCount * 2 + 1] = 1;
+                    runCount++;
+                }
+            } else {
+                if (kept != i) {
+                    copyRow(this, i, kept);
+                }
+                kept++;
+            }
+        }
+        size = kept;
+        clearRows(kept, oldSize);
+        for (int run = 0; run < runCount; run++) {
+            final int positionStart = removedRuns[run * 2];
+            final int itemCount = removedRuns[run * 2 + 1];
+            traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemRangeRemoved(positionStart, itemCount));
+        }
+    }
+
+    @Override
+    public void move(int fromPosition, int toPosition) {
+        checkPosition(fromPosition);
+        checkPosition(toPosition);
+        if (fromPosition == toPosition) {
+            return;
+        }
+        /* 各列分别旋转 [min, max] 区间. */
+        final int low = Math.min(fromPosition, toPosition);
+        final int high = Math.max(fromPosition, toPosition);
+        final boolean forward = fromPosition < toPosition;
+        for (long[] values : longColumns) {
+            final long moved = values[fromPosition];
+            if (forward) {
+                System.arraycopy(values, low + 1, values, low, high - low);
+            } else {
+                System.arraycopy(values, low, values, low + 1, high - low);
+            }
+            values[toPosition] = moved;
+        }
+        for (int[] values : intColumns) {
+            final int moved = values[fromPosition];
+            if (forward) {
+                System.arraycopy(values, low + 1, values, low, high - low);
+            } else {
+                System.arraycopy(values, low, values, low + 1, high - low);
+            }
+            values[toPosition] = moved;
+        }
+        for (double[] values : doubleColumns) {
+            final double moved = values[fromPosition];
+            if (forward) {
+                System.arraycopy(values, low + 1, values, low, high - low);
+            } else {
+                System.arraycopy(values, low, values, low + 1, high - low);
+            }
+            values[toPosition] = moved;
+        }
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemMoved(fromPosition, toPosition));
+    }
+
+    @Override
+    public void move(Row element, int toPosition) {
+        final int fromPosition = positionOf(element);
+        if (fromPosition >= 0) {
+            move(fromPosition, toPosition);
+        }
+    }
+
+    @Override
+    public void clear() {
+        clearRows(0, size);
+        size = 0;
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyDataSetChanged());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 存储
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 在 position 处空出 itemCount 行，size 随之增加
+     */
+    private void openGap(int position, int itemCount) {
+        final int newSize = size + itemCount;
+        if (newSize > capacity) {
+            capacity = Math.max(newSize, capacity + (capacity >> 1));
+            for (int i = 0; i < longColumns.length; i++) {
+                longColumns[i] = Arrays.copyOf(longColumns[i], capacity);
+            }
+            for (int i = 0; i < intColumns.length; i++) {
+                intColumns[i] = Arrays.copyOf(intColumns[i], capacity);
+            }
+            for (int i = 0; i < doubleColumns.length; i++) {
+                doubleColumns[i] = Arrays.copyOf(doubleColumns[i], capacity);
+            }
+        }
+        final int tail = size - position;
+        if (tail > 0) {
+            for (long[] values : longColumns) {
+                System.arraycopy(values, position, values, position + itemCount, tail);
+            }
+            for (int[] values : intColumns) {
+                System.arraycopy(values, position, values, position + itemCount, tail);
+            }
+            for (double[] values : doubleColumns) {
+                System.arraycopy(values, position, values, position + itemCount, tail);
+            }
+        }
+        size = newSize;
+    }
+
+    /**
+     * 移除 [position, position + itemCount) 行，size 随之减少
+     */
+    private void closeGap(int position, int itemCount) {
+        final int tail = size - position - itemCount;
+        if (tail > 0) {
+            for (long[] values : longColumns) {
+                System.arraycopy(values, position + itemCount, values, position, tail);
+            }
+            for (int[] values : intColumns) {
+                System.arraycopy(values, position + itemCount, values, position, tail);
+            }
+            for (double[] values : doubleColumns) {
+                System.arraycopy(values, position + itemCount, values, position, tail);
+            }
+        }
+        final int oldSize = size;
+        size -= itemCount;
+        clearRows(size, oldSize);
+    }
+
+    /**
+     * 把 [from, to) 行的字段置 0，新插入的行和容量中未使用的部分都保持为 0
+     */
+    private void clearRows(int from, int to) {
+        for (long[] values : longColumns) {
+            Arrays.fill(values, from, to, 0L);
+        }
+        for (int[] values : intColumns) {
+            Arrays.fill(values, from, to, 0);
+        }
+        for (double[] values : doubleColumns) {
+            Arrays.fill(values, from, to, 0D);
+        }
+    }
+
+    private void copyRow(@NonNull Row row, int target) {
+        copyRow(row.source, row.position, target);
+    }
+
+    /**
+     * 复制前调用 {@link #checkRow(Row)} 校验
+     */
+    private void copyRow(@NonNull ColumnarDataSource source, int sourcePosition, int target) {
+        for (int i = 0; i < longColumns.length; i++) {
+            longColumns[i][target] = source.longColumns[i][sourcePosition];
+        }
+        for (int i = 0; i < intColumns.length; i++) {
+            intColumns[i][target] = source.intColumns[i][sourcePosition];
+        }
+        for (int i = 0; i < doubleColumns.length; i++) {
+            doubleColumns[i][target] = source.doubleColumns[i][sourcePosition];
+        }
+    }
+
+    /**
+     * 校验 row 的列结构与本数据源相同，且指向来源中存在的行；在修改存储之前调用，校验失败时数据保持不变
+     */
+    private void checkRow(@NonNull Row row) {
+        final ColumnarDataSource source = row.source;
+        if (source.longColumns.length != longColumns.length
+                || source.intColumns.length != intColumns.length
+                || source.doubleColumns.length != doubleColumns.length) {
+            throw new IllegalArgumentException("Row has a different column layout");
+        }
+        if (row.position < 0 || row.position >= source.size) {
+            throw new IndexOutOfBoundsException("row position = " + row.position + ", source size = " + source.size);
+        }
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("position = " + position + ", size = " + size);
+        }
+    }
+
+    private void notifyColumnChanged(int position, @NonNull Column column) {
+        /* 高频路径，不创建 lambda. */
+        for (AdapterNotifierOwner owner : adapterNotifierOwners) {
+            owner.getNotifier().notifyItemChanged(position, column);
+        }
+    }
+
+    /**
+     * 遍历 AdapterNotifierOwner 集合
+     */
+    private void traversalAdapterNotifierOwners(@NonNull Consumer consumer) {
+        for (AdapterNotifierOwner owner : adapterNotifierOwners) {
+            consumer.accept(owner);
+        }
+    }
+
+    private interface Consumer {
+        void accept(@NonNull AdapterNotifierOwner owner);
+    }
+}
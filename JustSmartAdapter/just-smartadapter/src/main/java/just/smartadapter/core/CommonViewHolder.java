@@ -34,15 +34,67 @@ public class CommonViewHolder extends RecyclerView.ViewHolder {
     @NonNull
     private final SparseArrayCompat<View> mViews = new SparseArrayCompat<>();
 
+    private static final View[] NO_SLOTS = new View[0];
+
+    /**
+     * 预先声明的 viewId，与 mSlots 一一对应
+     */
+    @Nullable
+    private int[] mSlotIds;
+
+    /**
+     * 按声明顺序排列的 View，通过下标直接访问
+     */
+    @NonNull
+    private View[] mSlots = NO_SLOTS;
+
     public CommonViewHolder(@NonNull View itemView) {
         super(itemView);
     }
 
     /**
-     * 通过 viewId 获取对应的 View，通过 map 进行缓存，不用每次都 findViewById
+     * 一次性查找预先声明的 viewId 对应的 View，之后可以通过 {@link #getSlot(int)} 按下标访问
+     * <p>
+     * 同一个 viewIds 数组只解析一次
+     */
+    public final void resolveSlots(@NonNull int[] viewIds) {
+        if (mSlotIds == viewIds) {
+            return;
+        }
+        final View[] slots = new View[viewIds.length];
+        for (int i = 0; i < viewIds.length; i++) {
+            slots[i] = this.itemView.findViewById(viewIds[i]);
+            if (null == slots[i]) {
+                throw new RuntimeException("No view exists, viewId: " + viewIds[i]);
+            }
+        }
+        mSlots = slots;
+        mSlotIds = viewIds;
+    }
+
+    /**
+     * 按声明顺序的下标获取预先解析的 View，见 {@link #resolveSlots(int[])}
+     */
+    @NonNull
+    public <T extends View> T getSlot(int slot) {
+        //noinspection unchecked
+        return (T) mSlots[slot];
+    }
+
+    /**
+     * 通过 viewId 获取对应的 View，先查找预先解析的 View，再通过 map 进行缓存，不用每次都 findViewById
      */
     @NonNull
     public <T extends View> T getView(@IdRes int viewId) {
+        final int[] slotIds = mSlotIds;
+        if (null != slotIds) {
+            for (int i = 0; i < slotIds.length; i++) {
+                if (slotIds[i] == viewId) {
+                    //noinspection unchecked
+                    return (T) mSlots[i];
+                }
+            }
+        }
         View view = mViews.get(viewId);
         if (null == view) {
             view = this.itemView.findViewById(viewId);
@@ -58,6 +110,11 @@ public class CommonViewHolder extends RecyclerView.ViewHolder {
 
     ///////////////////////////////////////////////////////////////////////////
 
+    /**
+     * 包装 adapter 在被包装 adapter 的 item 之前增删 item 后，以该 payload 通知被包装 adapter 的 item 重新计算位置偏移，不重新绑定数据
+     */
+    public static final Object PAYLOAD_POSITION_SHIFTED = new Object();
+
     /**
      * 用于修正 layout 的位置
      */
@@ -77,6 +134,41 @@ public class CommonViewHolder extends RecyclerView.ViewHolder {
         return getLayoutPosition() - positionOffset;
     }
 
+    /**
+     * adapter 创建 holder 时收到的 itemViewType
+     */
+    private int createdItemViewType;
+
+    private boolean hasCreatedItemViewType;
+
+    public final void setCreatedItemViewType(int itemViewType) {
+        this.createdItemViewType = itemViewType;
+        this.hasCreatedItemViewType = true;
+    }
+
+    /**
+     * 获取 adapter 创建 holder 时收到的 itemViewType，adapter 被 ConcatAdapter 等重新分配 type 的包装类包装时与 getItemViewType() 不同；
+     * 未记录时返回 getItemViewType()
+     */
+    public final int getCreatedItemViewType() {
+        return hasCreatedItemViewType ? createdItemViewType : getItemViewType();
+    }
+
+    /**
+     * adapter 在创建 holder 时安装的事件分发器，绑定时复用
+     */
+    @Nullable
+    private Object itemEventDispatcher;
+
+    @Nullable
+    public final Object getItemEventDispatcher() {
+        return itemEventDispatcher;
+    }
+
+    public final void setItemEventDispatcher(@Nullable Object itemEventDispatcher) {
+        this.itemEventDispatcher = itemEventDispatcher;
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // static
     ///////////////////////////////////////////////////////////////////////////
@@ -0,0 +1,413 @@
+package just.smartadapter.core;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import just.smartadapter.SmartAdapter;
+
+/**
+ * 可以在任意线程修改的数据源
+ * <p>
+ * 修改操作作用在一份待发布的写时复制副本上，同时记录合并后的更新操作；主线程在下一帧开始时把副本作为新的快照一次性发布，
+ * 并把这段时间内的所有变化一起通知 adapter。
+ * <p>
+ * size、get 等读取方法只能在主线程调用，读取的是已发布的快照，不会被后台线程的修改阻塞；
+ * 修改方法中的位置都基于包括尚未发布的修改在内的最新数据，后台线程更适合使用以元素为参数的方法
+ */
+public class ConcurrentDataSource<E> implements SmartAdapter.DataSource<E> {
+
+    /**
+     * 保护 committed、pending、pendingUpdates、publishScheduled
+     */
+    @NonNull
+    private final Object lock = new Object();
+
+    /**
+     * 已发布的快照，只在主线程读写
+     */
+    @NonNull
+    private List<E> published;
+
+    /**
+     * 最近一次发布的快照，发布后不再修改，后台线程以它为基础复制待发布的副本
+     */
+    @NonNull
+    private List<E> committed;
+
+    /**
+     * 待发布的副本，没有未发布的修改时为 null
+     */
+    @Nullable
+    private ArrayList<E> pending;
+
+    /**
+     * 待发布的更新操作
+     */
+    @NonNull
+    private PendingUpdates pendingUpdates = new PendingUpdates();
+
+    /**
+     * 是否已经安排了发布
+     */
+    private boolean publishScheduled;
+
+    /**
+     * 安排在主线程发布，首次 attach 前为 null，此时的修改在 attach 时发布
+     */
+    @Nullable
+    private volatile PublishScheduler publishScheduler;
+
+    /**
+     * 只在主线程读写
+     */
+    @NonNull
+    private final List<AdapterNotifierOwner> adapterNotifierOwners = new ArrayList<>();
+
+    public ConcurrentDataSource() {
+        this(Collections.<E>emptyList());
+    }
+
+    public ConcurrentDataSource(@NonNull Collection<? extends E> initial) {
+        this.committed = Collections.unmodifiableList(new ArrayList<>(initial));
+        this.published = this.committed;
+    }
+
+    @Override
+    public void onAttach(@NonNull AdapterNotifierOwner owner) {
+        adapterNotifierOwners.add(owner);
+        if (null == publishScheduler) {
+            publishScheduler = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN ? new FramePublishScheduler() : new HandlerPublishScheduler();
+        }
+        publish();
+    }
+
+    @Override
+    public void onDetach(@NonNull AdapterNotifierOwner owner) {
+        adapterNotifierOwners.remove(owner);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 读取，只能在主线程调用
+    ///////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int size() {
+        return published.size();
+    }
+
+    @NonNull
+    @Override
+    public E get(int position) {
+        return published.get(position);
+    }
+
+    @NonNull
+    @Override
+    public Collection<E> getAll() {
+        return published;
+    }
+
+    @Override
+    public int positionOf(@NonNull E element) {
+        return published.indexOf(element);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 发布
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 立即在当前线程发布所有未发布的修改，只能在主线程调用
+     */
+    public void publish() {
+        final List<E> snapshot;
+        final PendingUpdates updates;
+        synchronized (lock) {
+            publishScheduled = false;
+            if (null == pending) {
+                return;
+            }
+            snapshot = Collections.unmodifiableList(pending);
+            updates = pendingUpdates;
+            committed = snapshot;
+            pending = null;
+            pendingUpdates = new PendingUpdates();
+        }
+        published = snapshot;
+        if (!updates.isEmpty()) {
+            for (AdapterNotifierOwner owner : adapterNotifierOwners) {
+                updates.dispatchTo(owner.getNotifier());
+            }
+        }
+    }
+
+    /**
+     * 获取待发布的副本，必须持有 lock
+     */
+    @NonNull
+    private ArrayList<E> pendingLocked() {
+        if (null == pending) {
+            pending = new ArrayList<>(committed);
+        }
+        return pending;
+    }
+
+    /**
+     * 修改完成后安排发布，在 batch 中时由最外层的 batch 安排
+     */
+    private void schedulePublish() {
+        final PublishScheduler scheduler = publishScheduler;
+        if (null == scheduler || Thread.holdsLock(lock)) {
+            return;
+        }
+        synchronized (lock) {
+            if (publishScheduled || null == pending) {
+                return;
+            }
+            publishScheduled = true;
+        }
+        scheduler.schedule();
+    }
+
+    /**
+     * 在一次加锁中执行多个修改，其它线程的修改不会穿插其中，修改会在同一次发布中生效
+     */
+    public void batch(@NonNull AutoNotifyDataSource.Transaction<E> transaction) {
+        synchronized (lock) {
+            transaction.run(this);
+        }
+        schedulePublish();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 修改，可以在任意线程调用
+    ///////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void refresh(@NonNull E element) {
+        synchronized (lock) {
+            final int position = pendingLocked().indexOf(element);
+            if (position >= 0) {
+                pendingUpdates.onChanged(position, 1, null);
+            }
+        }
+        schedulePublish();
+    }
+
+    @Override
+    public void refresh(int position) {
+        refresh(position, null);
+    }
+
+    @Override
+    public void refresh(int position, @Nullable Object payload) {
+        synchronized (lock) {
+            checkPosition(pendingLocked(), position);
+            pendingUpdates.onChanged(position, 1, payload);
+        }
+        schedulePublish();
+    }
+
+    @Override
+    public void set(int position, @NonNull E newElement) {
+        set(position, newElement, null);
+    }
+
+    @Override
+    public void set(int position, @NonNull E newElement, @Nullable Object payload) {
+        synchronized (lock) {
+            pendingLocked().set(position, newElement);
+            pendingUpdates.onChanged(position, 1, payload);
+        }
+        schedulePublish();
+    }
+
+    @Override
+    public void add(@NonNull E element) {
+        synchronized (lock) {
+            final ArrayList<E> list = pendingLocked();
+            list.add(element);
+            pendingUpdates.onInserted(list.size() - 1, 1);
+        }
+        schedulePublish();
+    }
+
+    @Override
+    public void add(int position, @NonNull E element) {
+        synchronized (lock) {
+            pendingLocked().add(position, element);
+            pendingUpdates.onInserted(position, 1);
+        }
+        schedulePublish();
+    }
+
+    @Override
+    public void addAll(@NonNull Collection<? extends E> collection) {
+        synchronized (lock) {
+            final ArrayList<E> list = pendingLocked();
+            final int size = list.size();
+            list.addAll(collection);
+            pendingUpdates.onInserted(size, collection.size());
+        }
+        schedulePublish();
+    }
+
+    @Override
+    public void addAll(int position, @NonNull Collection<? extends E> collection) {
+        synchronized (lock) {
+            pendingLocked().addAll(position, collection);
+            pendingUpdates.onInserted(position, collection.size());
+        }
+        schedulePublish();
+    }
+
+    @Override
+    public void replace(@NonNull Collection<? extends E> collection) {
+        synchronized (lock) {
+            final ArrayList<E> list = pendingLocked();
+            list.clear();
+            list.addAll(collection);
+            pendingUpdates.onDataSetChanged();
+        }
+        schedulePublish();
+    }
+
+    @Override
+    public void remove(@NonNull E element) {
+        synchronized (lock) {
+            final ArrayList<E> list = pendingLocked();
+            final int position = list.indexOf(element);
+            if (position >= 0) {
+                list.remove(position);
+                pendingUpdates.onRemoved(position, 1);
+            }
+        }
+        schedulePublish();
+    }
+
+    @Override
+    public void removeAt(int position) {
+        synchronized (lock) {
+            pendingLocked().remove(position);
+            pendingUpdates.onRemoved(position, 1);
+        }
+        schedulePublish();
+    }
+
+    @Override
+    public void removeIf(@NonNull SmartAdapter.ItemTypePredicate<? super E> filter) {
+        synchronized (lock) {
+            final ArrayList<E> list = pendingLocked();
+            final int size = list.size();
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                final E element = list.get(i);
+                if (filter.test(element, i)) {
+                    /* 之前被移除的 item 已经前移了 kept 之后的位置，相邻的移除会被合并为一个区间. */
+                    pendingUpdates.onRemoved(kept, 1);
+                } else {
+                    list.set(kept++, element);
+                }
+            }
+            list.subList(kept, size).clear();
+        }
+        schedulePublish();
+    }
+
+    @Override
+    public void move(int fromPosition, int toPosition) {
+        synchronized (lock) {
+            final ArrayList<E> list = pendingLocked();
+            list.add(toPosition, list.remove(fromPosition));
+            pendingUpdates.onMoved(fromPosition, toPosition);
+        }
+        schedulePublish();
+    }
+
+    @Override
+    public void move(E element, int toPosition) {
+        synchronized (lock) {
+            final int fromPosition = pendingLocked().indexOf(element);
+            if (fromPosition >= 0) {
+                move(fromPosition, toPosition);
+            }
+        }
+        schedulePublish();
+    }
+
+    @Override
+    public void clear() {
+        synchronized (lock) {
+            pendingLocked().clear();
+            pendingUpdates.onDataSetChanged();
+        }
+        schedulePublish();
+    }
+
+    private static void checkPosition(@NonNull List<?> list, int position) {
+        if (position < 0 || position >= list.size()) {
+            throw new IndexOutOfBoundsException("Position " + position + ", size " + list.size());
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 在主线程安排发布
+    ///////////////////////////////////////////////////////////////////////////
+
+    private interface PublishScheduler {
+        /**
+         * 可以在任意线程调用
+         */
+        void schedule();
+    }
+
+    /**
+     * 在下一帧开始时发布，Choreographer 在首次 attach 时于主线程获取，之后可以在任意线程 post
+     */
+    @RequiresApi(Build.VERSION_CODES.JELLY_BEAN)
+    private final class FramePublishScheduler implements PublishScheduler, Choreographer.FrameCallback {
+
+        @NonNull
+        private final Choreographer choreographer = Choreographer.getInstance();
+
+        @Override
+        public void schedule() {
+            choreographer.postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            publish();
+        }
+    }
+
+    /**
+     * 不支持 Choreographer 时通过主线程 Handler 发布
+     */
+    private final class HandlerPublishScheduler implements PublishScheduler, Runnable {
+
+        @NonNull
+        private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void schedule() {
+            mainHandler.post(this);
+        }
+
+        @Override
+        public void run() {
+            publish();
+        }
+    }
+}
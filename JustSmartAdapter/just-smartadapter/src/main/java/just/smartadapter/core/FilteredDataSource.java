@@ -0,0 +1,647 @@
+package just.smartadapter.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import just.smartadapter.SmartAdapter;
+
+/**
+ * 数据源的过滤视图，只包含满足过滤条件的 item
+ * <p>
+ * 用一个有序的 int 数组记录每个可见 item 在原始数据源中的位置。原始数据源需要在修改后主动通知（例如 AutoNotifyDataSource），
+ * 本类作为它的 AdapterNotifierOwner 接收通知，增量更新位置映射，并换算成过滤后的位置转发给 adapter；
+ * 修改过滤条件时只通知新旧结果之间的差异。本类的修改方法作用在原始数据源上，位置是过滤后的位置。
+ * <p>
+ * 原始数据源回放批量修改、diff 结果时（见 {@link AdapterNotifier#beginDeferredUpdates()}），数据已是最终状态，
+ * 回放期间只平移位置映射，插入和变化的 item 先视为可见，回放结束后按最终数据重新判断，再一次性转发合并后的通知。
+ * <p>
+ * 创建后即开始监听原始数据源，不再使用时调用 {@link #release()}；只应在主线程使用
+ *
+ * @param <E>
+ */
+public class FilteredDataSource<E> implements SmartAdapter.DataSource<E> {
+
+    /**
+     * 过滤条件，只能依赖 item 本身，不能依赖位置
+     */
+    public interface Filter<E> {
+        boolean test(@NonNull E element);
+    }
+
+    @NonNull
+    private final SmartAdapter.DataSource<E> originDataSource;
+
+    @NonNull
+    private final List<AdapterNotifierOwner> adapterNotifierOwners = new ArrayList<>();
+
+    /**
+     * 为 null 时不过滤
+     */
+    @Nullable
+    private Filter<? super E> filter;
+
+    /**
+     * 可见 item 在原始数据源中的位置，升序，[0, count) 有效
+     */
+    @NonNull
+    private int[] originPositions = new int[16];
+
+    private int count;
+
+    /**
+     * 原始数据源回放的嵌套层数
+     */
+    private int deferredDepth;
+
+    /**
+     * 回放期间暂存的过滤后的通知，不在回放时为 null
+     */
+    @Nullable
+    private PendingUpdates deferredUpdates;
+
+    /**
+     * 回放期间先视为可见、回放结束后需要重新判断的原始位置，随之后的插入、移除、移动平移，[0, uncheckedCount) 有效，可能重复
+     */
+    @NonNull
+    private int[] uncheckedPositions = new int[16];
+
+    private int uncheckedCount;
+
+    @NonNull
+    private final OriginNotifier originNotifier = new OriginNotifier();
+
+    @NonNull
+    private final AdapterNotifierOwner originObserver = () -> originNotifier;
+
+    public FilteredDataSource(@NonNull SmartAdapter.DataSource<E> originDataSource, @Nullable Filter<? super E> filter) {
+        this.originDataSource = originDataSource;
+        this.filter = filter;
+        rebuild();
+        originDataSource.onAttach(originObserver);
+    }
+
+    /**
+     * 停止监听原始数据源
+     */
+    public void release() {
+        originDataSource.onDetach(originObserver);
+    }
+
+    /**
+     * 修改过滤条件，只通知新旧过滤结果之间的差异
+     */
+    public void setFilter(@Nullable Filter<? super E> filter) {
+        this.filter = filter;
+        final int[] oldPositions = originPositions;
+        final int oldCount = count;
+        final int originSize = originDataSource.size();
+        int[] newPositions = new int[Math.max(16, null == filter ? originSize : oldCount)];
+        final PendingUpdates updates = new PendingUpdates();
+        int newCount = 0;
+        int oldIndex = 0;
+        for (int position = 0; position < originSize; position++) {
+            final boolean wasVisible = oldIndex < oldCount && oldPositions[oldIndex] == position;
+            final boolean visible = accept(originDataSource.get(position));
+            if (wasVisible) {
+                oldIndex++;
+            }
+            if (visible) {
+                if (!wasVisible) {
+                    updates.onInserted(newCount, 1);
+                }
+                newPositions = ensureCapacity(newPositions, newCount + 1);
+                newPositions[newCount++] = position;
+            } else if (wasVisible) {
+                updates.onRemoved(newCount, 1);
+            }
+        }
+        originPositions = newPositions;
+        count = newCount;
+        dispatch(updates);
+    }
+
+    /**
+     * 修改为更严格的过滤条件，新条件通过的 item 必须也通过旧条件，只检查当前可见的 item，例如搜索框中继续输入
+     */
+    public void refineFilter(@NonNull Filter<? super E> filter) {
+        this.filter = filter;
+        final PendingUpdates updates = new PendingUpdates();
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            final int position = originPositions[i];
+            if (filter.test(originDataSource.get(position))) {
+                originPositions[kept++] = position;
+            } else {
+                updates.onRemoved(kept, 1);
+            }
+        }
+        count = kept;
+        dispatch(updates);
+    }
+
+    /**
+     * 过滤后的位置对应的原始位置
+     */
+    public int toOriginPosition(int position) {
+        checkPosition(position);
+        return originPositions[position];
+    }
+
+    private boolean accept(@NonNull E element) {
+        final Filter<? super E> filter = this.filter;
+        return null == filter || filter.test(element);
+    }
+
+    private void rebuild() {
+        final int originSize = originDataSource.size();
+        int newCount = 0;
+        for (int position = 0; position < originSize; position++) {
+            if (accept(originDataSource.get(position))) {
+                originPositions = ensureCapacity(originPositions, newCount + 1);
+                originPositions[newCount++] = position;
+            }
+        }
+        count = newCount;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // DataSource
+    ///////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onAttach(@NonNull AdapterNotifierOwner owner) {
+        adapterNotifierOwners.add(owner);
+    }
+
+    @Override
+    public void onDetach(@NonNull AdapterNotifierOwner owner) {
+        adapterNotifierOwners.remove(owner);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @NonNull
+    @Override
+    public E get(int position) {
+        return originDataSource.get(toOriginPosition(position));
+    }
+
+    @NonNull
+    @Override
+    public Collection<E> getAll() {
+        /* 只读视图. */
+        return new AbstractList<E>() {
+            @Override
+            public E get(int index) {
+                return FilteredDataSource.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public int positionOf(@NonNull E element) {
+        final int originPosition = originDataSource.positionOf(element);
+        if (originPosition < 0) {
+            return -1;
+        }
+        final int index = Arrays.binarySearch(originPositions, 0, count, originPosition);
+        return index >= 0 ? index : -1;
+    }
+
+    @Override
+    public void refresh(@NonNull E element) {
+        originDataSource.refresh(element);
+    }
+
+    @Override
+    public void refresh(int position) {
+        originDataSource.refresh(toOriginPosition(position));
+    }
+
+    @Override
+    public void refresh(int position, @Nullable Object payload) {
+        originDataSource.refresh(toOriginPosition(position), payload);
+    }
+
+    /**
+     * 新的 item 不满足过滤条件时会从过滤结果中移除
+     */
+    @Override
+    public void set(int position, @NonNull E newElement) {
+        originDataSource.set(toOriginPosition(position), newElement);
+    }
+
+    @Override
+    public void set(int position, @NonNull E newElement, @Nullable Object payload) {
+        originDataSource.set(toOriginPosition(position), newElement, payload);
+    }
+
+    /**
+     * 添加到原始数据源末尾，不满足过滤条件时不可见
+     */
+    @Override
+    public void add(@NonNull E element) {
+        originDataSource.add(element);
+    }
+
+    /**
+     * 添加到原始数据源中 position 处 item 的前面，position 为 size 时添加到最后一个可见 item 的后面
+     */
+    @Override
+    public void add(int position, @NonNull E element) {
+        originDataSource.add(toInsertPosition(position), element);
+    }
+
+    @Override
+    public void addAll(@NonNull Collection<? extends E> collection) {
+        originDataSource.addAll(collection);
+    }
+
+    @Override
+    public void addAll(int position, @NonNull Collection<? extends E> collection) {
+        originDataSource.addAll(toInsertPosition(position), collection);
+    }
+
+    @Override
+    public void replace(@NonNull Collection<? extends E> collection) {
+        originDataSource.replace(collection);
+    }
+
+    @Override
+    public void remove(@NonNull E element) {
+        originDataSource.remove(element);
+    }
+
+    @Override
+    public void removeAt(int position) {
+        originDataSource.removeAt(toOriginPosition(position));
+    }
+
+    /**
+     * 只移除可见的 item，filter 收到的是过滤后的位置
+     */
+    @Override
+    public void removeIf(@NonNull SmartAdapter.ItemTypePredicate<? super E> filter) {
+        originDataSource.removeIf(new SmartAdapter.ItemTypePredicate<E>() {
+
+            /**
+             * 原始数据源按位置升序调用，记录下一个可能可见的位置
+             */
+            private int index;
+
+            @Override
+            public boolean test(@NonNull E data, int position) {
+                while (index < count && originPositions[index] < position) {
+                    index++;
+                }
+                return index < count && originPositions[index] == position && filter.test(data, index);
+            }
+        });
+    }
+
+    @Override
+    public void move(int fromPosition, int toPosition) {
+        originDataSource.move(toOriginPosition(fromPosition), toOriginPosition(toPosition));
+    }
+
+    @Override
+    public void move(E element, int toPosition) {
+        final int fromPosition = positionOf(element);
+        if (fromPosition >= 0) {
+            move(fromPosition, toPosition);
+        }
+    }
+
+    /**
+     * 清空原始数据源
+     */
+    @Override
+    public void clear() {
+        originDataSource.clear();
+    }
+
+    private int toInsertPosition(int position) {
+        if (position < 0 || position > count) {
+            throw new IndexOutOfBoundsException("position = " + position + ", size = " + count);
+        }
+        if (position < count) {
+            return originPositions[position];
+        }
+        return count == 0 ? originDataSource.size() : originPositions[count - 1] + 1;
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= count) {
+            throw new IndexOutOfBoundsException("position = " + position + ", size = " + count);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 增量维护
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 第一个原始位置不小于 originPosition 的可见 item 的位置
+     */
+    private int lowerBound(int originPosition) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (originPositions[mid] < originPosition) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void onOriginInserted(int positionStart, int itemCount) {
+        final boolean deferred = null != deferredUpdates;
+        final int index = lowerBound(positionStart);
+        final int[] accepted = new int[itemCount];
+        int inserted = 0;
+        for (int i = 0; i < itemCount; i++) {
+            if (deferred || accept(originDataSource.get(positionStart + i))) {
+                accepted[inserted++] = positionStart + i;
+            }
+        }
+        originPositions = ensureCapacity(originPositions, count + inserted);
+        System.arraycopy(originPositions, index, originPositions, index + inserted, count - index);
+        System.arraycopy(accepted, 0, originPositions, index, inserted);
+        count += inserted;
+        /* 插入位置之后的 item 原始位置整体后移. */
+        for (int i = index + inserted; i < count; i++) {
+            originPositions[i] += itemCount;
+        }
+        if (deferred) {
+            for (int i = 0; i < uncheckedCount; i++) {
+                if (uncheckedPositions[i] >= positionStart) {
+                    uncheckedPositions[i] += itemCount;
+                }
+            }
+            for (int i = 0; i < itemCount; i++) {
+                addUnchecked(positionStart + i);
+            }
+            deferredUpdates.onInserted(index, inserted);
+        } else if (inserted > 0) {
+            for (AdapterNotifierOwner owner : adapterNotifierOwners) {
+                owner.getNotifier().notifyItemRangeInserted(index, inserted);
+            }
+        }
+    }
+
+    private void onOriginRemoved(int positionStart, int itemCount) {
+        final int from = lowerBound(positionStart);
+        final int to = lowerBound(positionStart + itemCount);
+        final int removed = to - from;
+        System.arraycopy(originPositions, to, originPositions, from, count - to);
+        count -= removed;
+        for (int i = from; i < count; i++) {
+            originPositions[i] -= itemCount;
+        }
+        if (null != deferredUpdates) {
+            int kept = 0;
+            for (int i = 0; i < uncheckedCount; i++) {
+                final int position = uncheckedPositions[i];
+                if (position < positionStart) {
+                    uncheckedPositions[kept++] = position;
+                } else if (position >= positionStart + itemCount) {
+                    uncheckedPositions[kept++] = position - itemCount;
+                }
+            }
+            uncheckedCount = kept;
+            deferredUpdates.onRemoved(from, removed);
+        } else if (removed > 0) {
+            for (AdapterNotifierOwner owner : adapterNotifierOwners) {
+                owner.getNotifier().notifyItemRangeRemoved(from, removed);
+            }
+        }
+    }
+
+    private void onOriginMoved(int fromPosition, int toPosition) {
+        if (fromPosition == toPosition) {
+            return;
+        }
+        for (int i = 0; i < uncheckedCount; i++) {
+            final int position = uncheckedPositions[i];
+            if (position == fromPosition) {
+                uncheckedPositions[i] = toPosition;
+            } else if (fromPosition < toPosition && position > fromPosition && position <= toPosition) {
+                uncheckedPositions[i] = position - 1;
+            } else if (fromPosition > toPosition && position >= toPosition && position < fromPosition) {
+                uncheckedPositions[i] = position + 1;
+            }
+        }
+        final int fromIndex = lowerBound(fromPosition);
+        final boolean visible = fromIndex < count && originPositions[fromIndex] == fromPosition;
+        if (visible) {
+            System.arraycopy(originPositions, fromIndex + 1, originPositions, fromIndex, count - fromIndex - 1);
+            count--;
+        }
+        /* 两个位置之间的 item 整体平移一位. */
+        if (fromPosition < toPosition) {
+            for (int i = lowerBound(fromPosition + 1), end = lowerBound(toPosition + 1); i < end; i++) {
+                originPositions[i]--;
+            }
+        } else {
+            for (int i = lowerBound(toPosition), end = lowerBound(fromPosition); i < end; i++) {
+                originPositions[i]++;
+            }
+        }
+        if (!visible) {
+            return;
+        }
+        final int toIndex = lowerBound(toPosition);
+        System.arraycopy(originPositions, toIndex, originPositions, toIndex + 1, count - toIndex);
+        originPositions[toIndex] = toPosition;
+        count++;
+        if (fromIndex == toIndex) {
+            return;
+        }
+        if (null != deferredUpdates) {
+            deferredUpdates.onMoved(fromIndex, toIndex);
+        } else {
+            for (AdapterNotifierOwner owner : adapterNotifierOwners) {
+                owner.getNotifier().notifyItemMoved(fromIndex, toIndex);
+            }
+        }
+    }
+
+    /**
+     * 变化的 item 可能因此进入或离开过滤结果，回放期间先视为可见，回放结束后再判断
+     */
+    private void onOriginChanged(int positionStart, int itemCount, @Nullable Object payload) {
+        final boolean deferred = null != deferredUpdates;
+        final PendingUpdates updates = deferred ? deferredUpdates : new PendingUpdates();
+        int index = lowerBound(positionStart);
+        for (int position = positionStart; position < positionStart + itemCount; position++) {
+            final boolean wasVisible = index < count && originPositions[index] == position;
+            final boolean visible = deferred || accept(originDataSource.get(position));
+            if (deferred) {
+                addUnchecked(position);
+            }
+            if (wasVisible && visible) {
+                updates.onChanged(index++, 1, payload);
+            } else if (wasVisible) {
+                System.arraycopy(originPositions, index + 1, originPositions, index, count - index - 1);
+                count--;
+                updates.onRemoved(index, 1);
+            } else if (visible) {
+                originPositions = ensureCapacity(originPositions, count + 1);
+                System.arraycopy(originPositions, index, originPositions, index + 1, count - index);
+                originPositions[index] = position;
+                count++;
+                updates.onInserted(index++, 1);
+            }
+        }
+        if (!deferred) {
+            dispatch(updates);
+        }
+    }
+
+    private void onOriginDataSetChanged() {
+        rebuild();
+        if (null != deferredUpdates) {
+            uncheckedCount = 0;
+            deferredUpdates.onDataSetChanged();
+            return;
+        }
+        for (AdapterNotifierOwner owner : adapterNotifierOwners) {
+            owner.getNotifier().notifyDataSetChanged();
+        }
+    }
+
+    private void onOriginBeginDeferredUpdates() {
+        if (deferredDepth++ == 0) {
+            deferredUpdates = new PendingUpdates();
+        }
+    }
+
+    /**
+     * 回放结束，按最终数据重新判断先视为可见的 item，从后往前移除不满足条件的，再转发回放期间的全部通知
+     */
+    private void onOriginEndDeferredUpdates() {
+        if (--deferredDepth > 0) {
+            return;
+        }
+        final PendingUpdates updates = Objects.requireNonNull(deferredUpdates);
+        deferredUpdates = null;
+        Arrays.sort(uncheckedPositions, 0, uncheckedCount);
+        for (int i = uncheckedCount - 1; i >= 0; i--) {
+            final int position = uncheckedPositions[i];
+            if (i > 0 && uncheckedPositions[i - 1] == position) {
+                continue;
+            }
+            final int index = lowerBound(position);
+            if (index < count && originPositions[index] == position && !accept(originDataSource.get(position))) {
+                System.arraycopy(originPositions, index + 1, originPositions, index, count - index - 1);
+                count--;
+                updates.onRemoved(index, 1);
+            }
+        }
+        uncheckedCount = 0;
+        dispatch(updates);
+    }
+
+    private void addUnchecked(int position) {
+        uncheckedPositions = ensureCapacity(uncheckedPositions, uncheckedCount + 1);
+        uncheckedPositions[uncheckedCount++] = position;
+    }
+
+    private void dispatch(@NonNull PendingUpdates updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        for (AdapterNotifierOwner owner : adapterNotifierOwners) {
+            updates.dispatchTo(owner.getNotifier());
+        }
+    }
+
+    @NonNull
+    private static int[] ensureCapacity(@NonNull int[] array, int capacity) {
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length + (array.length >> 1)));
+    }
+
+    /**
+     * 接收原始数据源的通知，位置都是原始位置
+     */
+    private final class OriginNotifier implements AdapterNotifier {
+
+        @Override
+        public void notifyDataSetChanged() {
+            onOriginDataSetChanged();
+        }
+
+        @Override
+        public void notifyItemChanged(int position) {
+            onOriginChanged(position, 1, null);
+        }
+
+        @Override
+        public void notifyItemChanged(int position, @Nullable Object payload) {
+            onOriginChanged(position, 1, payload);
+        }
+
+        @Override
+        public void notifyItemRangeChanged(int positionStart, int itemCount) {
+            onOriginChanged(positionStart, itemCount, null);
+        }
+
+        @Override
+        public void notifyItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            onOriginChanged(positionStart, itemCount, payload);
+        }
+
+        @Override
+        public void notifyItemMoved(int fromPosition, int toPosition) {
+            onOriginMoved(fromPosition, toPosition);
+        }
+
+        @Override
+        public void notifyItemInserted(int position) {
+            onOriginInserted(position, 1);
+        }
+
+        @Override
+        public void notifyItemRangeInserted(int positionStart, int itemCount) {
+            onOriginInserted(positionStart, itemCount);
+        }
+
+        @Override
+        public void notifyItemRemoved(int position) {
+            onOriginRemoved(position, 1);
+        }
+
+        @Override
+        public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+            onOriginRemoved(positionStart, itemCount);
+        }
+
+        @Override
+        public void beginDeferredUpdates() {
+            onOriginBeginDeferredUpdates();
+        }
+
+        @Override
+        public void endDeferredUpdates() {
+            onOriginEndDeferredUpdates();
+        }
+    }
+}
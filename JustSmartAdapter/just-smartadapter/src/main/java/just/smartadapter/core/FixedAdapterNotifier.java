@@ -8,14 +8,55 @@ import just.smartadapter.core.AdapterNotifier;
 
 /**
  * 修正 adapter notifyXXX 的问题
+ * <p>
+ * 插入、移除、移动 item 后，位置发生偏移的 item 绑定时记录的 position 已经过期，默认会追加 notifyItemRangeChanged 使其重新绑定；
+ * 如果点击等事件在触发时才解析 position，且 ViewHolderBinder 不依赖绑定时的 position，可以关闭重新绑定，只发出结构变化的通知。
+ * 回放批量修改、diff 结果期间（见 {@link #beginDeferredUpdates()}）只记录最小的偏移位置，回放结束后一次性重新绑定之后的 item
  */
 public final class FixedAdapterNotifier implements AdapterNotifier {
 
     @NonNull
     private final RecyclerView.Adapter adapter;
 
+    /**
+     * 是否重新绑定位置发生偏移的 item
+     */
+    private final boolean rebindShiftedItems;
+
     public FixedAdapterNotifier(@NonNull RecyclerView.Adapter adapter) {
+        this(adapter, true);
+    }
+
+    public FixedAdapterNotifier(@NonNull RecyclerView.Adapter adapter, boolean rebindShiftedItems) {
         this.adapter = adapter;
+        this.rebindShiftedItems = rebindShiftedItems;
+    }
+
+    /**
+     * 嵌套的回放层数
+     */
+    private int deferredDepth;
+
+    /**
+     * 回放期间位置发生偏移的最小位置
+     */
+    private int deferredRebindFrom = Integer.MAX_VALUE;
+
+    @Override
+    public void beginDeferredUpdates() {
+        deferredDepth++;
+    }
+
+    @Override
+    public void endDeferredUpdates() {
+        if (deferredDepth == 0 || --deferredDepth > 0) {
+            return;
+        }
+        final int positionStart = deferredRebindFrom;
+        deferredRebindFrom = Integer.MAX_VALUE;
+        if (isPartAffected(positionStart)) {
+            adapter.notifyItemRangeChanged(positionStart, size() - positionStart);
+        }
     }
 
     @Override
@@ -47,49 +88,62 @@ public final class FixedAdapterNotifier implements AdapterNotifier {
     public void notifyItemMoved(int fromPosition, int toPosition) {
         if (fromPosition != toPosition) {
             adapter.notifyItemMoved(fromPosition, toPosition);
-            final int min = Math.min(fromPosition, toPosition);
-            final int max = Math.max(fromPosition, toPosition);
-            adapter.notifyItemRangeChanged(min, max - min + 1);
+            if (rebindShiftedItems) {
+                final int min = Math.min(fromPosition, toPosition);
+                final int max = Math.max(fromPosition, toPosition);
+                if (deferredDepth > 0) {
+                    deferredRebindFrom = Math.min(deferredRebindFrom, min);
+                } else {
+                    adapter.notifyItemRangeChanged(min, max - min + 1);
+                }
+            }
         }
     }
 
     @Override
     public void notifyItemInserted(int position) {
         adapter.notifyItemInserted(position);
-        if (isPartAffected(position)) {
-            adapter.notifyItemRangeChanged(position, size() - position);
-        }
+        rebindTail(position + 1);
     }
 
     @Override
     public void notifyItemRangeInserted(int positionStart, int itemCount) {
         adapter.notifyItemRangeInserted(positionStart, itemCount);
-        if (isPartAffected(positionStart)) {
-            adapter.notifyItemRangeChanged(positionStart, size() - positionStart);
-        }
+        rebindTail(positionStart + itemCount);
     }
 
     @Override
     public void notifyItemRemoved(int position) {
         adapter.notifyItemRemoved(position);
-        if (isPartAffected(position)) {
-            adapter.notifyItemRangeChanged(position, size() - position);
-        }
+        rebindTail(position);
     }
 
     @Override
     public void notifyItemRangeRemoved(int positionStart, int itemCount) {
         adapter.notifyItemRangeRemoved(positionStart, itemCount);
-        if (isPartAffected(positionStart)) {
+        rebindTail(positionStart);
+    }
+
+    /**
+     * 重新绑定从 positionStart 开始、位置发生偏移的 item
+     */
+    private void rebindTail(int positionStart) {
+        if (!rebindShiftedItems) {
+            return;
+        }
+        if (deferredDepth > 0) {
+            /* 回放期间 item 个数已是最终状态，合并到回放结束后. */
+            deferredRebindFrom = Math.min(deferredRebindFrom, positionStart);
+        } else if (isPartAffected(positionStart)) {
             adapter.notifyItemRangeChanged(positionStart, size() - positionStart);
         }
     }
 
     /**
-     * 判断是否是局部受影响
+     * 判断是否是局部受影响，即 position 之后还有 item
      */
     private boolean isPartAffected(int position) {
-        return position != size() - 1;
+        return position < size();
     }
 
     /**
@@ -0,0 +1,313 @@
+package just.smartadapter.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import just.smartadapter.SmartAdapter;
+
+/**
+ * 维护 key 到位置哈希索引的 ListDataSource，positionOf、remove(E)、move(E, int) 均摊接近 O(1)
+ * <p>
+ * 索引惰性维护：插入、移除不改写已有的索引，只把偏移追加到偏移日志，每个索引项记录写入时的日志版本，
+ * 查找时只补算该版本之后的偏移，校验一次即可命中，因此在头部反复插入、移除时不需要重建或扫描索引。
+ * 日志长度超过数据个数时清空索引，之后从头补建，均摊到每次修改仍是 O(1)。item 的 key 必须唯一
+ *
+ * @param <E>
+ */
+public class IndexedListDataSource<E> extends ListDataSource<E> {
+
+    /**
+     * 计算 item 的 key，为 null 时使用 item 自身作为 key
+     */
+    @Nullable
+    private final ItemKey<E> itemKey;
+
+    /**
+     * 偏移日志的最小容量，数据较少时也允许积累一定数量的偏移
+     */
+    private static final int MIN_SHIFT_LOG_CAPACITY = 16;
+
+    /**
+     * key 到索引项的索引
+     */
+    @NonNull
+    private final Map<Object, Entry> index = new HashMap<>();
+
+    /**
+     * 在该位置之前的 item 都已写入索引
+     */
+    private int indexedUntil;
+
+    /**
+     * 偏移日志：位置不小于 shiftFrom[i] 的 item 移动了 shiftDelta[i]
+     */
+    @NonNull
+    private int[] shiftFrom = new int[MIN_SHIFT_LOG_CAPACITY];
+
+    @NonNull
+    private int[] shiftDelta = new int[MIN_SHIFT_LOG_CAPACITY];
+
+    /**
+     * 偏移日志的长度，也是当前的日志版本
+     */
+    private int shiftCount;
+
+    public IndexedListDataSource(@NonNull List<E> list) {
+        this(list, null);
+    }
+
+    public IndexedListDataSource(@NonNull List<E> list, @Nullable ItemKey<E> itemKey) {
+        super(list);
+        this.itemKey = itemKey;
+    }
+
+    @Override
+    public int positionOf(@NonNull E element) {
+        final Object key = keyOf(element);
+        final Entry entry = index.get(key);
+        if (null != entry) {
+            final int position = entry.catchUp();
+            if (matches(position, key)) {
+                return position;
+            }
+            /* 数据在外部被修改，索引已不可信. */
+            resetIndex();
+        }
+
+        /* 从 indexedUntil 开始补建索引，直到找到该 key. */
+        final int size = size();
+        while (indexedUntil < size) {
+            final int current = indexedUntil++;
+            final Object currentKey = keyOf(get(current));
+            put(currentKey, current);
+            if (currentKey.equals(key)) {
+                return current;
+            }
+        }
+
+        /* 已不在数据源中，清除残留的索引. */
+        index.remove(key);
+        return -1;
+    }
+
+    @Override
+    public void set(int position, @NonNull E newElement) {
+        index.remove(keyOf(get(position)));
+        super.set(position, newElement);
+        if (position < indexedUntil) {
+            put(keyOf(newElement), position);
+        }
+    }
+
+    @Override
+    public void add(@NonNull E element) {
+        final int position = size();
+        super.add(element);
+        /* 追加到尾部不影响已有的索引. */
+        if (indexedUntil == position) {
+            put(keyOf(element), position);
+            indexedUntil++;
+        }
+    }
+
+    @Override
+    public void add(int position, @NonNull E element) {
+        super.add(position, element);
+        if (position <= indexedUntil && shift(position, 1)) {
+            put(keyOf(element), position);
+            indexedUntil++;
+        }
+    }
+
+    @Override
+    public void addAll(int position, @NonNull Collection<? extends E> collection) {
+        super.addAll(position, collection);
+        if (position <= indexedUntil && shift(position, collection.size())) {
+            int current = position;
+            for (E element : collection) {
+                put(keyOf(element), current++);
+            }
+            indexedUntil += collection.size();
+        }
+    }
+
+    @Override
+    public void replace(@NonNull Collection<? extends E> collection) {
+        super.replace(collection);
+        resetIndex();
+    }
+
+    @Override
+    public void remove(@NonNull E element) {
+        final int position = positionOf(element);
+        if (position >= 0) {
+            removeAt(position);
+        }
+    }
+
+    @Override
+    public void removeAt(int position) {
+        index.remove(keyOf(get(position)));
+        super.removeAt(position);
+        if (position < indexedUntil && shift(position + 1, -1)) {
+            indexedUntil--;
+        }
+    }
+
+    @Override
+    public void removeIf(@NonNull SmartAdapter.ItemTypePredicate<? super E> filter) {
+        final int[] firstRemoved = {Integer.MAX_VALUE};
+        super.removeIf((data, position) -> {
+            if (filter.test(data, position)) {
+                index.remove(keyOf(data));
+                firstRemoved[0] = Math.min(firstRemoved[0], position);
+                return true;
+            }
+            return false;
+        });
+        /* 移除的位置可能很多，不逐个记录偏移，之后的索引从第一个移除的位置开始补建. */
+        invalidateFrom(firstRemoved[0]);
+    }
+
+    @Override
+    public void move(int fromPosition, int toPosition) {
+        super.move(fromPosition, toPosition);
+        if (fromPosition == toPosition) {
+            return;
+        }
+        if (Math.max(fromPosition, toPosition) >= indexedUntil) {
+            invalidateFrom(Math.min(fromPosition, toPosition));
+            return;
+        }
+        /* 相当于先移除 fromPosition，再插入到 toPosition. */
+        if (shift(fromPosition + 1, -1) && shift(toPosition, 1)) {
+            put(keyOf(get(toPosition)), toPosition);
+        }
+    }
+
+    @Override
+    public void move(E element, int toPosition) {
+        final int fromPosition = positionOf(element);
+        if (fromPosition >= 0) {
+            move(fromPosition, toPosition);
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        resetIndex();
+    }
+
+    private void resetIndex() {
+        index.clear();
+        indexedUntil = 0;
+        shiftCount = 0;
+    }
+
+    /**
+     * 以当前的日志版本写入索引项
+     */
+    private void put(@NonNull Object key, int position) {
+        final Entry entry = index.get(key);
+        if (null != entry) {
+            entry.position = position;
+            entry.version = shiftCount;
+        } else {
+            index.put(key, new Entry(position, shiftCount));
+        }
+    }
+
+    /**
+     * 记录的位置处是否仍是该 key 的 item
+     */
+    private boolean matches(int position, @NonNull Object key) {
+        return position >= 0 && position < size() && keyOf(get(position)).equals(key);
+    }
+
+    /**
+     * 记录 position 及之后的 item 移动了 delta；日志过长时清空索引并返回 false，避免查找时补算的偏移过多
+     */
+    private boolean shift(int position, int delta) {
+        if (shiftCount >= Math.max(MIN_SHIFT_LOG_CAPACITY, size())) {
+            resetIndex();
+            return false;
+        }
+        if (shiftCount == shiftFrom.length) {
+            shiftFrom = Arrays.copyOf(shiftFrom, shiftCount * 2);
+            shiftDelta = Arrays.copyOf(shiftDelta, shiftCount * 2);
+        }
+        shiftFrom[shiftCount] = position;
+        shiftDelta[shiftCount] = delta;
+        shiftCount++;
+        return true;
+    }
+
+    /**
+     * position 及之后的 item 不再可信，从索引中移除并从 position 开始补建
+     */
+    private void invalidateFrom(int position) {
+        if (position >= indexedUntil) {
+            return;
+        }
+        if (position == 0) {
+            resetIndex();
+            return;
+        }
+        final Iterator<Entry> iterator = index.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().catchUp() >= position) {
+                iterator.remove();
+            }
+        }
+        indexedUntil = position;
+    }
+
+    /**
+     * 索引项，记录写入时的位置和日志版本
+     */
+    private final class Entry {
+
+        private int position;
+
+        private int version;
+
+        Entry(int position, int version) {
+            this.position = position;
+            this.version = version;
+        }
+
+        /**
+         * 补算写入之后的偏移，得到当前的位置
+         */
+        int catchUp() {
+            for (int i = version; i < shiftCount; i++) {
+                if (position >= shiftFrom[i]) {
+                    position += shiftDelta[i];
+                }
+            }
+            version = shiftCount;
+            return position;
+        }
+    }
+
+    @NonNull
+    private Object keyOf(@NonNull E element) {
+        return null != itemKey ? itemKey.keyOf(element) : element;
+    }
+
+    /**
+     * 计算 item 的唯一 key
+     */
+    public interface ItemKey<E> {
+        @NonNull
+        Object keyOf(@NonNull E element);
+    }
+}
@@ -0,0 +1,65 @@
+package just.smartadapter.core;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 调试用，adapter 每次发出通知后全量检查 stable id 是否重复，发现重复时抛出异常
+ * <p>
+ * 每次检查都遍历所有 item，只应在调试时开启
+ */
+public final class ItemIdCollisionChecker extends RecyclerView.AdapterDataObserver {
+
+    @NonNull
+    private final RecyclerView.Adapter<?> adapter;
+
+    public ItemIdCollisionChecker(@NonNull RecyclerView.Adapter<?> adapter) {
+        this.adapter = adapter;
+    }
+
+    /**
+     * 检查所有 item 的 id，重复时抛出 IllegalStateException
+     */
+    public void check() {
+        final int itemCount = adapter.getItemCount();
+        final Map<Long, Integer> positions = new HashMap<>(itemCount * 2);
+        for (int position = 0; position < itemCount; position++) {
+            final long itemId = adapter.getItemId(position);
+            if (itemId == RecyclerView.NO_ID) {
+                throw new IllegalStateException("No item id at position " + position);
+            }
+            final Integer previous = positions.put(itemId, position);
+            if (null != previous) {
+                throw new IllegalStateException("Duplicate item id " + itemId + " at positions " + previous + " and " + position);
+            }
+        }
+    }
+
+    @Override
+    public void onChanged() {
+        check();
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        check();
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        check();
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        check();
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        check();
+    }
+}
@@ -0,0 +1,116 @@
+package just.smartadapter.core;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * 按位置缓存已解析的 itemViewType，使用 int 数组存储
+ * <p>
+ * 注册为 adapter 的 AdapterDataObserver，随 adapter 发出的 insert、remove、move、change 事件同步平移或失效缓存，
+ * 因此数据源的每次变更都必须通知 adapter（例如使用 AutoNotifyDataSource），否则缓存会过期
+ */
+public final class ItemViewTypeCache extends RecyclerView.AdapterDataObserver {
+
+    /**
+     * 表示该位置尚未解析，itemViewType 不能使用该值
+     */
+    public static final int UNRESOLVED = Integer.MIN_VALUE;
+
+    private int[] types = new int[16];
+
+    /**
+     * 已跟踪的位置个数，超出部分都视为未解析
+     */
+    private int size;
+
+    /**
+     * 获取缓存的 itemViewType，未解析时返回 {@link #UNRESOLVED}
+     */
+    public int get(int position) {
+        return position < size ? types[position] : UNRESOLVED;
+    }
+
+    /**
+     * 缓存指定位置的 itemViewType
+     */
+    public void put(int position, int type) {
+        if (position >= size) {
+            ensureCapacity(position + 1);
+            Arrays.fill(types, size, position, UNRESOLVED);
+            size = position + 1;
+        }
+        types[position] = type;
+    }
+
+    /**
+     * 使所有缓存失效
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > types.length) {
+            types = Arrays.copyOf(types, Math.max(capacity, types.length * 2));
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 跟随 adapter 的通知平移或失效缓存
+    ///////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onChanged() {
+        clear();
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        /* 数据变化后 type 可能随之改变. */
+        if (positionStart < size) {
+            Arrays.fill(types, positionStart, Math.min(positionStart + itemCount, size), UNRESOLVED);
+        }
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+        onItemRangeChanged(positionStart, itemCount);
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        if (positionStart < size) {
+            ensureCapacity(size + itemCount);
+            System.arraycopy(types, positionStart, types, positionStart + itemCount, size - positionStart);
+            Arrays.fill(types, positionStart, positionStart + itemCount, UNRESOLVED);
+            size += itemCount;
+        }
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        if (positionStart < size) {
+            final int end = Math.min(positionStart + itemCount, size);
+            System.arraycopy(types, end, types, positionStart, size - end);
+            size -= end - positionStart;
+        }
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        if (itemCount == 1 && fromPosition < size && toPosition < size) {
+            final int type = types[fromPosition];
+            if (fromPosition < toPosition) {
+                System.arraycopy(types, fromPosition + 1, types, fromPosition, toPosition - fromPosition);
+            } else {
+                System.arraycopy(types, toPosition, types, toPosition + 1, fromPosition - toPosition);
+            }
+            types[toPosition] = type;
+        } else {
+            /* 无法精确平移的情况，丢弃受影响位置之后的缓存. */
+            size = Math.min(size, Math.min(fromPosition, toPosition));
+        }
+    }
+}
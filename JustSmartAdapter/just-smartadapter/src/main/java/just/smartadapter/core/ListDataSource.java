@@ -1,9 +1,12 @@
 package just.smartadapter.core;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
 
 import just.smartadapter.SmartAdapter;
 
@@ -61,11 +64,21 @@ public class ListDataSource<E> implements SmartAdapter.DataSource<E> {
         // nothing can do.
     }
 
+    @Override
+    public void refresh(int position, @Nullable Object payload) {
+        // nothing can do.
+    }
+
     @Override
     public void set(int position, @NonNull E newElement) {
         list.set(position, newElement);
     }
 
+    @Override
+    public void set(int position, @NonNull E newElement, @Nullable Object payload) {
+        set(position, newElement);
+    }
+
     @Override
     public void add(@NonNull E element) {
         list.add(element);
@@ -104,11 +117,30 @@ public class ListDataSource<E> implements SmartAdapter.DataSource<E> {
 
     @Override
     public void removeIf(@NonNull SmartAdapter.ItemTypePredicate<? super E> filter) {
-        final int size = list.size();
-        for (int i = size - 1; i >= 0; i--) {
-            final E element = list.get(i);
-            if (filter.test(element, i)) {
-                list.remove(i);
+        if (list instanceof RandomAccess) {
+            /* 单次遍历，将保留的元素前移压缩，最后一次性截断尾部. */
+            final int size = list.size();
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                final E element = list.get(i);
+                if (!filter.test(element, i)) {
+                    if (kept != i) {
+                        list.set(kept, element);
+                    }
+                    kept++;
+                }
+            }
+            if (kept < size) {
+                list.subList(kept, size).clear();
+            }
+        } else {
+            /* 链表通过迭代器删除，position 保持为移除前的位置. */
+            final Iterator<E> iterator = list.iterator();
+            int position = 0;
+            while (iterator.hasNext()) {
+                if (filter.test(iterator.next(), position++)) {
+                    iterator.remove();
+                }
             }
         }
     }
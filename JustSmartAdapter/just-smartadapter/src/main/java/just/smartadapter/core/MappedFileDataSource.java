@@ -0,0 +1,544 @@
+package just.smartadapter.core;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import just.smartadapter.SmartAdapter;
+
+/**
+ * 基于内存映射文件的只读数据源，适合百万级的离线数据
+ * <p>
+ * 记录按顺序存放在数据文件中，索引文件依次保存每条记录在数据文件中的结束偏移（long），第 i 条记录的范围是
+ * [end(i - 1), end(i))。打开时只映射文件，不读取记录；get 时才用 {@link RecordCodec} 解码，
+ * 最近解码的 item 按 LRU 缓存，内存占用与记录数无关。
+ * <p>
+ * 以可追加方式打开时，add、addAll 把新记录追加到文件末尾，数据落盘后才写索引，进程或系统中断也不会读到不完整的记录；
+ * 追加按调用顺序在 writeExecutor 上写文件并等待落盘，完成后回到主线程更新 size 并通知，因此 add 返回时 size 还没有变化；
+ * 大量追加应合并为一次 addAll。写入失败时在主线程抛出异常，之后的追加不再执行。其它修改方法不支持。单个文件不能超过 2GB。
+ * 只应在主线程使用，不再使用时调用 {@link #close()}，已提交的追加写完后才关闭文件
+ *
+ * @param <E>
+ */
+public class MappedFileDataSource<E> implements SmartAdapter.DataSource<E>, Closeable {
+
+    private static final int INDEX_ENTRY_SIZE = 8;
+
+    private static final int DEFAULT_CACHE_CAPACITY = 256;
+
+    /**
+     * 记录的编解码
+     */
+    public interface RecordCodec<E> {
+
+        /**
+         * 解码一条记录，record 的 position 到 limit 之间是该记录的全部字节
+         */
+        @NonNull
+        E decode(@NonNull ByteBuffer record);
+
+        /**
+         * 编码一条记录，只在追加时调用
+         */
+        @NonNull
+        byte[] encode(@NonNull E element);
+    }
+
+    @NonNull
+    private final List<AdapterNotifierOwner> adapterNotifierOwners = new ArrayList<>();
+
+    @NonNull
+    private final RecordCodec<E> codec;
+
+    @NonNull
+    private final FileChannel dataChannel;
+
+    @NonNull
+    private final FileChannel indexChannel;
+
+    private final boolean appendable;
+
+    @NonNull
+    private final Executor writeExecutor;
+
+    @NonNull
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * 等待写入的追加任务，按提交顺序逐个在 writeExecutor 上执行
+     */
+    @NonNull
+    private final ArrayDeque<Runnable> writeTasks = new ArrayDeque<>();
+
+    /**
+     * 是否有任务正在 writeExecutor 上执行，由 writeTasks 加锁保护
+     */
+    private boolean writing;
+
+    /**
+     * 写入失败的原因，失败后不再执行之后的追加
+     */
+    @Nullable
+    private volatile Exception writeFailure;
+
+    /**
+     * 已写入文件的记录数和数据结束偏移，只在追加任务中访问
+     */
+    private int writtenCount;
+
+    private long writtenEnd;
+
+    private boolean closed;
+
+    /**
+     * 最近解码的 item，按访问顺序排列，超出容量时淘汰最久未访问的
+     */
+    @NonNull
+    private final LinkedHashMap<Integer, E> decodedItems;
+
+    @NonNull
+    private MappedByteBuffer dataBuffer;
+
+    @NonNull
+    private MappedByteBuffer indexBuffer;
+
+    /**
+     * 当前映射覆盖的记录数，追加的记录在首次访问时重新映射
+     */
+    private int mappedCount;
+
+    private int count;
+
+    /**
+     * 最后一条记录在数据文件中的结束偏移
+     */
+    private long dataEnd;
+
+    /**
+     * 以只读方式打开
+     */
+    public MappedFileDataSource(@NonNull File dataFile, @NonNull File indexFile, @NonNull RecordCodec<E> codec) throws IOException {
+        this(dataFile, indexFile, codec, DEFAULT_CACHE_CAPACITY, false);
+    }
+
+    /**
+     * @param cacheCapacity 缓存的已解码 item 数量
+     * @param appendable    是否允许追加，为 true 时文件不存在会被创建
+     */
+    public MappedFileDataSource(@NonNull File dataFile, @NonNull File indexFile, @NonNull RecordCodec<E> codec, int cacheCapacity, boolean appendable) throws IOException {
+        this(dataFile, indexFile, codec, cacheCapacity, appendable, WriteExecutorHolder.EXECUTOR);
+    }
+
+    /**
+     * @param writeExecutor 执行追加写入的线程池，同一数据源的追加任务不会并发执行
+     */
+    public MappedFileDataSource(@NonNull File dataFile, @NonNull File indexFile, @NonNull RecordCodec<E> codec, int cacheCapacity, boolean appendable, @NonNull Executor writeExecutor) throws IOException {
+        if (cacheCapacity <= 0) {
+            throw new IllegalArgumentException("cacheCapacity must be positive");
+        }
+        this.codec = codec;
+        this.appendable = appendable;
+        this.writeExecutor = writeExecutor;
+        final String mode = appendable ? "rw" : "r";
+        this.dataChannel = new RandomAccessFile(dataFile, mode).getChannel();
+        try {
+            this.indexChannel = new RandomAccessFile(indexFile, mode).getChannel();
+        } catch (IOException e) {
+            dataChannel.close();
+            throw e;
+        }
+        this.decodedItems = new LinkedHashMap<Integer, E>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, E> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+
+        try {
+            /* 只信任数据已经完整写入的索引项，中断的追加会被忽略. */
+            final long dataSize = dataChannel.size();
+            int entries = checkMappable(indexChannel.size() / INDEX_ENTRY_SIZE * INDEX_ENTRY_SIZE) / INDEX_ENTRY_SIZE;
+            this.indexBuffer = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, (long) entries * INDEX_ENTRY_SIZE);
+            while (entries > 0 && indexBuffer.getLong((entries - 1) * INDEX_ENTRY_SIZE) > dataSize) {
+                entries--;
+            }
+            this.count = entries;
+            this.dataEnd = endOf(entries - 1);
+            this.dataBuffer = dataChannel.map(FileChannel.MapMode.READ_ONLY, 0, checkMappable(dataEnd));
+            this.mappedCount = entries;
+        } catch (IOException | RuntimeException e) {
+            try {
+                closeChannels();
+            } catch (IOException ignored) {
+                // 保留原始异常.
+            }
+            throw e;
+        }
+        this.writtenCount = count;
+        this.writtenEnd = dataEnd;
+    }
+
+    /**
+     * 已提交的追加在写完后才关闭文件，之后不能再追加
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!appendable) {
+            closeChannels();
+            return;
+        }
+        enqueueWrite(() -> {
+            try {
+                closeChannels();
+            } catch (IOException ignored) {
+                // 已写入的数据都已落盘，关闭失败不影响数据.
+            }
+        });
+    }
+
+    private void closeChannels() throws IOException {
+        try {
+            dataChannel.close();
+        } finally {
+            indexChannel.close();
+        }
+    }
+
+    @Override
+    public void onAttach(@NonNull AdapterNotifierOwner owner) {
+        adapterNotifierOwners.add(owner);
+    }
+
+    @Override
+    public void onDetach(@NonNull AdapterNotifierOwner owner) {
+        adapterNotifierOwners.remove(owner);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @NonNull
+    @Override
+    public E get(int position) {
+        if (position < 0 || position >= count) {
+            throw new IndexOutOfBoundsException("position = " + position + ", size = " + count);
+        }
+        final E cached = decodedItems.get(position);
+        if (null != cached) {
+            return cached;
+        }
+        if (position >= mappedCount) {
+            remap();
+        }
+        final ByteBuffer record = dataBuffer.duplicate();
+        record.limit((int) endOf(position));
+        record.position((int) endOf(position - 1));
+        final E element = codec.decode(record);
+        decodedItems.put(position, element);
+        return element;
+    }
+
+    /**
+     * 第 position 条记录的结束偏移，position 为 -1 时为 0
+     */
+    private long endOf(int position) {
+        return position < 0 ? 0 : indexBuffer.getLong(position * INDEX_ENTRY_SIZE);
+    }
+
+    /**
+     * 重新映射到当前的文件末尾，使追加的记录可读
+     */
+    private void remap() {
+        try {
+            indexBuffer = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, checkMappable((long) count * INDEX_ENTRY_SIZE));
+            dataBuffer = dataChannel.map(FileChannel.MapMode.READ_ONLY, 0, checkMappable(dataEnd));
+            mappedCount = count;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to map records", e);
+        }
+    }
+
+    private static int checkMappable(long size) {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("File larger than 2GB is not supported: " + size);
+        }
+        return (int) size;
+    }
+
+    @NonNull
+    @Override
+    public Collection<E> getAll() {
+        /* 只读视图，访问时解码. */
+        return new AbstractList<E>() {
+            @Override
+            public E get(int index) {
+                return MappedFileDataSource.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public int positionOf(@NonNull E element) {
+        /* 只在已解码的 item 中查找. */
+        for (Map.Entry<Integer, E> entry : decodedItems.entrySet()) {
+            if (entry.getValue().equals(element)) {
+                return entry.getKey();
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void refresh(@NonNull E element) {
+        final int position = positionOf(element);
+        if (position >= 0) {
+            refresh(position);
+        }
+    }
+
+    @Override
+    public void refresh(int position) {
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemChanged(position));
+    }
+
+    @Override
+    public void refresh(int position, @Nullable Object payload) {
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemChanged(position, payload));
+    }
+
+    @Override
+    public void add(@NonNull E element) {
+        addAll(Collections.singletonList(element));
+    }
+
+    /**
+     * 只能追加到末尾
+     */
+    @Override
+    public void add(int position, @NonNull E element) {
+        checkAppendPosition(position);
+        add(element);
+    }
+
+    /**
+     * 在 writeExecutor 上追加，写入落盘后回到主线程更新 size 并通知
+     */
+    @Override
+    public void addAll(@NonNull Collection<? extends E> collection) {
+        if (!appendable) {
+            throw readOnly();
+        }
+        if (closed) {
+            throw new IllegalStateException("MappedFileDataSource is closed");
+        }
+        final Exception failure = writeFailure;
+        if (null != failure) {
+            throw new IllegalStateException("A previous append failed", failure);
+        }
+        if (collection.isEmpty()) {
+            return;
+        }
+        final List<E> elements = new ArrayList<>(collection);
+        enqueueWrite(() -> write(elements));
+    }
+
+    /**
+     * 在 writeExecutor 上写入记录和索引项
+     */
+    private void write(@NonNull List<E> elements) {
+        if (null != writeFailure) {
+            return;
+        }
+        final int itemCount = elements.size();
+        final ByteBuffer indexEntries = ByteBuffer.allocate(itemCount * INDEX_ENTRY_SIZE);
+        long end = writtenEnd;
+        try {
+            for (E element : elements) {
+                final byte[] bytes = codec.encode(element);
+                writeFully(dataChannel, ByteBuffer.wrap(bytes), end);
+                end += bytes.length;
+                indexEntries.putLong(end);
+            }
+            /* 数据先落盘，索引项才可能指向已写入的数据. */
+            dataChannel.force(false);
+            indexEntries.flip();
+            writeFully(indexChannel, indexEntries, (long) writtenCount * INDEX_ENTRY_SIZE);
+        } catch (IOException | RuntimeException e) {
+            writeFailure = e;
+            mainHandler.post(() -> {
+                if (!closed) {
+                    throw new IllegalStateException("Failed to append records", e);
+                }
+            });
+            return;
+        }
+        writtenCount += itemCount;
+        writtenEnd = end;
+        final long newDataEnd = end;
+        mainHandler.post(() -> onAppended(itemCount, newDataEnd));
+    }
+
+    /**
+     * 在主线程上使已落盘的记录可见
+     */
+    private void onAppended(int itemCount, long newDataEnd) {
+        if (closed) {
+            return;
+        }
+        final int positionStart = count;
+        count += itemCount;
+        dataEnd = newDataEnd;
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemRangeInserted(positionStart, itemCount));
+    }
+
+    /**
+     * 按提交顺序执行写入任务，同一时刻最多只有一个任务在 writeExecutor 上执行
+     */
+    private void enqueueWrite(@NonNull Runnable task) {
+        synchronized (writeTasks) {
+            writeTasks.add(task);
+            if (writing) {
+                return;
+            }
+            writing = true;
+        }
+        writeExecutor.execute(this::drainWrites);
+    }
+
+    private void drainWrites() {
+        while (true) {
+            final Runnable task;
+            synchronized (writeTasks) {
+                task = writeTasks.poll();
+                if (null == task) {
+                    writing = false;
+                    return;
+                }
+            }
+            task.run();
+        }
+    }
+
+    /**
+     * 只能追加到末尾
+     */
+    @Override
+    public void addAll(int position, @NonNull Collection<? extends E> collection) {
+        checkAppendPosition(position);
+        addAll(collection);
+    }
+
+    private void checkAppendPosition(int position) {
+        if (position != count) {
+            throw new UnsupportedOperationException("MappedFileDataSource only supports appending, position = " + position + ", size = " + count);
+        }
+    }
+
+    private static void writeFully(@NonNull FileChannel channel, @NonNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // MappedFileDataSource 只支持追加
+
+    @Override
+    public void set(int position, @NonNull E newElement) {
+        throw readOnly();
+    }
+
+    @Override
+    public void replace(@NonNull Collection<? extends E> collection) {
+        throw readOnly();
+    }
+
+    @Override
+    public void remove(@NonNull E element) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeAt(int position) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeIf(@NonNull SmartAdapter.ItemTypePredicate<? super E> filter) {
+        throw readOnly();
+    }
+
+    @Override
+    public void move(int fromPosition, int toPosition) {
+        throw readOnly();
+    }
+
+    @Override
+    public void move(E element, int toPosition) {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear() {
+        throw readOnly();
+    }
+
+    @NonNull
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("MappedFileDataSource is read-only except for appending");
+    }
+
+    /**
+     * 遍历 AdapterNotifierOwner 集合
+     */
+    private void traversalAdapterNotifierOwners(@NonNull Consumer consumer) {
+        for (AdapterNotifierOwner owner : adapterNotifierOwners) {
+            consumer.accept(owner);
+        }
+    }
+
+    private interface Consumer {
+        void accept(@NonNull AdapterNotifierOwner owner);
+    }
+
+    /**
+     * 默认的写入线程池，首次使用时才创建
+     */
+    private static final class WriteExecutorHolder {
+        static final Executor EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "smartadapter-write");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
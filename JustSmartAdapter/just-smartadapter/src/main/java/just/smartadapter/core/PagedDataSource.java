@@ -0,0 +1,459 @@
+package just.smartadapter.core;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import just.smartadapter.SmartAdapter;
+
+/**
+ * 分页加载的只读数据源，内存中只保留访问位置附近的若干页
+ * <p>
+ * get 命中未加载的页时先返回占位 item，同时在后台线程加载该页及相邻的页，加载完成后回到主线程通知对应区间变化；
+ * 驻留的页数超过上限时按 LRU 淘汰访问窗口之外最久未访问的页，并通知该区间变化，已绑定的 item 重新绑定为占位 item。
+ * 占位 item 需要单独的 type 展示，见 {@link #placeholderFilter()}
+ * <p>
+ * 加载失败或返回的 item 数与该页不符时回调 {@link OnPageLoadFailedListener}，该页按指数退避延迟重试，退避期间访问该页不会再次发起加载
+ *
+ * @param <E>
+ */
+public class PagedDataSource<E> implements SmartAdapter.DataSource<E> {
+
+    /**
+     * 第一次重试前的等待时间
+     */
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 1000;
+
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    @NonNull
+    private final List<AdapterNotifierOwner> adapterNotifierOwners = new ArrayList<>();
+
+    @NonNull
+    private final PageLoader<E> pageLoader;
+
+    @NonNull
+    private final Executor loadExecutor;
+
+    @NonNull
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * 占位 item，所在页加载完成前返回
+     */
+    @NonNull
+    private final E placeholder;
+
+    private final int pageSize;
+
+    /**
+     * 最多驻留的页数
+     */
+    private final int maxPages;
+
+    /**
+     * 访问某页时，同时预加载其前后各 prefetchPages 页
+     */
+    private final int prefetchPages;
+
+    /**
+     * 已加载的页，按访问顺序排列，超出上限时淘汰访问窗口之外最久未访问的页
+     */
+    @NonNull
+    private final LinkedHashMap<Integer, List<E>> pages = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 正在加载的页
+     */
+    @NonNull
+    private final Set<Integer> loadingPages = new HashSet<>();
+
+    /**
+     * 加载失败的页及其连续失败次数，成功加载后移除
+     */
+    @NonNull
+    private final Map<Integer, Integer> failedPages = new HashMap<>();
+
+    /**
+     * 处于退避期的页，期间不发起加载
+     */
+    @NonNull
+    private final Set<Integer> backoffPages = new HashSet<>();
+
+    @Nullable
+    private OnPageLoadFailedListener onPageLoadFailedListener;
+
+    private int totalCount;
+
+    /**
+     * 最近一次访问的页
+     */
+    private int lastPageIndex = -1;
+
+    /**
+     * 每次 invalidate 自增，用于丢弃过期的加载结果
+     */
+    private int generation;
+
+    /**
+     * @param totalCount    item 总数
+     * @param pageSize      每页 item 数
+     * @param maxPages      最多驻留的页数
+     * @param prefetchPages 访问某页时前后各预加载的页数
+     * @param placeholder   所在页加载完成前返回的占位 item
+     * @param pageLoader    页加载器，在 loadExecutor 上执行
+     */
+    public PagedDataSource(int totalCount, int pageSize, int maxPages, int prefetchPages, @NonNull E placeholder, @NonNull PageLoader<E> pageLoader) {
+        this(totalCount, pageSize, maxPages, prefetchPages, placeholder, pageLoader, LoadExecutorHolder.EXECUTOR);
+    }
+
+    public PagedDataSource(int totalCount, int pageSize, int maxPages, int prefetchPages, @NonNull E placeholder, @NonNull PageLoader<E> pageLoader, @NonNull Executor loadExecutor) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        if (maxPages < prefetchPages * 2 + 1) {
+            throw new IllegalArgumentException("maxPages must hold the prefetch window");
+        }
+        this.totalCount = totalCount;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.prefetchPages = prefetchPages;
+        this.placeholder = placeholder;
+        this.pageLoader = pageLoader;
+        this.loadExecutor = loadExecutor;
+    }
+
+    /**
+     * 判断是否是占位 item 的 filter，用于声明展示占位 item 的 type
+     * <p>
+     * 其它 type 的 filter 不应匹配占位 item
+     */
+    @NonNull
+    public SmartAdapter.ItemTypePredicate<E> placeholderFilter() {
+        return (data, position) -> data == placeholder;
+    }
+
+    /**
+     * 判断 item 是否是占位 item
+     */
+    public boolean isPlaceholder(@NonNull E element) {
+        return element == placeholder;
+    }
+
+    /**
+     * 设置页加载失败的回调，在主线程调用
+     */
+    public void setOnPageLoadFailedListener(@Nullable OnPageLoadFailedListener listener) {
+        this.onPageLoadFailedListener = listener;
+    }
+
+    /**
+     * 丢弃所有已加载的页并以新的 item 总数重新开始
+     */
+    public void invalidate(int totalCount) {
+        this.generation++;
+        this.totalCount = totalCount;
+        this.pages.clear();
+        this.loadingPages.clear();
+        this.failedPages.clear();
+        this.backoffPages.clear();
+        this.lastPageIndex = -1;
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyDataSetChanged());
+    }
+
+    @Override
+    public void onAttach(@NonNull AdapterNotifierOwner owner) {
+        adapterNotifierOwners.add(owner);
+    }
+
+    @Override
+    public void onDetach(@NonNull AdapterNotifierOwner owner) {
+        adapterNotifierOwners.remove(owner);
+    }
+
+    @Override
+    public int size() {
+        return totalCount;
+    }
+
+    @NonNull
+    @Override
+    public E get(int position) {
+        if (position < 0 || position >= totalCount) {
+            throw new IndexOutOfBoundsException("position = " + position + ", size = " + totalCount);
+        }
+        final int pageIndex = position / pageSize;
+        final List<E> page = pages.get(pageIndex);
+
+        /* 访问的页发生变化或尚未加载时，加载访问页附近的窗口，先加载访问页本身. */
+        if (pageIndex != lastPageIndex || null == page) {
+            lastPageIndex = pageIndex;
+            loadPageIfNeeded(pageIndex);
+            for (int distance = 1; distance <= prefetchPages; distance++) {
+                loadPageIfNeeded(pageIndex + distance);
+                loadPageIfNeeded(pageIndex - distance);
+            }
+        }
+
+        return null != page ? page.get(position - pageIndex * pageSize) : placeholder;
+    }
+
+    private void loadPageIfNeeded(int pageIndex) {
+        final int positionStart = pageIndex * pageSize;
+        if (pageIndex < 0 || positionStart >= totalCount || pages.containsKey(pageIndex) || backoffPages.contains(pageIndex) || !loadingPages.add(pageIndex)) {
+            return;
+        }
+        final int itemCount = Math.min(pageSize, totalCount - positionStart);
+        final int loadGeneration = this.generation;
+        loadExecutor.execute(() -> {
+            try {
+                final List<E> page = pageLoader.load(pageIndex, positionStart, itemCount);
+                mainHandler.post(() -> onPageLoaded(loadGeneration, pageIndex, positionStart, itemCount, page));
+            } catch (RuntimeException e) {
+                mainHandler.post(() -> onPageLoadFailed(loadGeneration, pageIndex, e));
+            }
+        });
+    }
+
+    /**
+     * 在主线程接收加载结果
+     */
+    private void onPageLoaded(int loadGeneration, int pageIndex, int positionStart, int itemCount, @NonNull List<E> page) {
+        if (loadGeneration != this.generation) {
+            return;
+        }
+        if (page.size() != itemCount) {
+            onPageLoadFailed(loadGeneration, pageIndex, new IllegalStateException("Page " + pageIndex + " loaded " + page.size() + " items, expected " + itemCount));
+            return;
+        }
+        loadingPages.remove(pageIndex);
+        failedPages.remove(pageIndex);
+        pages.put(pageIndex, page);
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemRangeChanged(positionStart, itemCount));
+        evictPagesIfNeeded();
+    }
+
+    /**
+     * 驻留的页数超过上限时，淘汰访问窗口之外最久未访问的页；被淘汰的页可能仍有绑定的 item，通知其重新绑定为占位 item
+     */
+    private void evictPagesIfNeeded() {
+        final Iterator<Integer> iterator = pages.keySet().iterator();
+        while (pages.size() > maxPages && iterator.hasNext()) {
+            final int pageIndex = iterator.next();
+            if (lastPageIndex >= 0 && Math.abs(pageIndex - lastPageIndex) <= prefetchPages) {
+                continue;
+            }
+            iterator.remove();
+            final int positionStart = pageIndex * pageSize;
+            final int itemCount = Math.min(pageSize, totalCount - positionStart);
+            traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemRangeChanged(positionStart, itemCount));
+        }
+    }
+
+    /**
+     * 在主线程处理加载失败：回调后进入退避期，到期时该页仍在访问窗口内才重试
+     */
+    private void onPageLoadFailed(int loadGeneration, int pageIndex, @NonNull RuntimeException error) {
+        if (loadGeneration != this.generation) {
+            return;
+        }
+        loadingPages.remove(pageIndex);
+        final Integer previousFailures = failedPages.get(pageIndex);
+        final int failures = null == previousFailures ? 1 : previousFailures + 1;
+        failedPages.put(pageIndex, failures);
+        backoffPages.add(pageIndex);
+        if (null != onPageLoadFailedListener) {
+            onPageLoadFailedListener.onPageLoadFailed(pageIndex, failures, error);
+        }
+        final long delayMillis = Math.min(INITIAL_RETRY_DELAY_MILLIS << Math.min(failures - 1, 16), MAX_RETRY_DELAY_MILLIS);
+        mainHandler.postDelayed(() -> {
+            if (loadGeneration != this.generation || !backoffPages.remove(pageIndex)) {
+                return;
+            }
+            if (lastPageIndex >= 0 && Math.abs(pageIndex - lastPageIndex) <= prefetchPages) {
+                loadPageIfNeeded(pageIndex);
+            }
+        }, delayMillis);
+    }
+
+    @NonNull
+    @Override
+    public Collection<E> getAll() {
+        /* 只读视图，未加载的位置返回占位 item. */
+        return new AbstractList<E>() {
+            @Override
+            public E get(int index) {
+                return PagedDataSource.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return totalCount;
+            }
+        };
+    }
+
+    @Override
+    public int positionOf(@NonNull E element) {
+        /* 只在已加载的页中查找. */
+        for (Map.Entry<Integer, List<E>> entry : pages.entrySet()) {
+            final int index = entry.getValue().indexOf(element);
+            if (index >= 0) {
+                return entry.getKey() * pageSize + index;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void refresh(@NonNull E element) {
+        final int position = positionOf(element);
+        if (position >= 0) {
+            refresh(position);
+        }
+    }
+
+    @Override
+    public void refresh(int position) {
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemChanged(position));
+    }
+
+    @Override
+    public void refresh(int position, @Nullable Object payload) {
+        traversalAdapterNotifierOwners(it -> it.getNotifier().notifyItemChanged(position, payload));
+    }
+
+    // PagedDataSource 只读，修改请通过 PageLoader 的数据源完成后调用 invalidate
+
+    @Override
+    public void set(int position, @NonNull E newElement) {
+        throw readOnly();
+    }
+
+    @Override
+    public void add(@NonNull E element) {
+        throw readOnly();
+    }
+
+    @Override
+    public void add(int position, @NonNull E element) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addAll(@NonNull Collection<? extends E> collection) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addAll(int position, @NonNull Collection<? extends E> collection) {
+        throw readOnly();
+    }
+
+    @Override
+    public void replace(@NonNull Collection<? extends E> collection) {
+        throw readOnly();
+    }
+
+    @Override
+    public void remove(@NonNull E element) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeAt(int position) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeIf(@NonNull SmartAdapter.ItemTypePredicate<? super E> filter) {
+        throw readOnly();
+    }
+
+    @Override
+    public void move(int fromPosition, int toPosition) {
+        throw readOnly();
+    }
+
+    @Override
+    public void move(E element, int toPosition) {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear() {
+        invalidate(0);
+    }
+
+    @NonNull
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("PagedDataSource is read-only, use invalidate instead");
+    }
+
+    /**
+     * 遍历 AdapterNotifierOwner 集合
+     */
+    private void traversalAdapterNotifierOwners(@NonNull Consumer consumer) {
+        for (AdapterNotifierOwner owner : adapterNotifierOwners) {
+            consumer.accept(owner);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Consumer {
+        void accept(@NonNull AdapterNotifierOwner owner);
+    }
+
+    /**
+     * 页加载器，在后台线程执行
+     */
+    public interface PageLoader<E> {
+        /**
+         * 加载一页数据
+         *
+         * @param pageIndex     页序号
+         * @param positionStart 该页第一个 item 的位置
+         * @param itemCount     该页的 item 数，返回的集合大小必须与之相等
+         */
+        @NonNull
+        List<E> load(int pageIndex, int positionStart, int itemCount);
+    }
+
+    /**
+     * 页加载失败的回调
+     */
+    public interface OnPageLoadFailedListener {
+        /**
+         * @param pageIndex 页序号
+         * @param failures  该页连续失败的次数
+         * @param error     {@link PageLoader#load(int, int, int)} 抛出的异常，返回的 item 数不符时为 IllegalStateException
+         */
+        void onPageLoadFailed(int pageIndex, int failures, @NonNull RuntimeException error);
+    }
+
+    /**
+     * 默认的加载线程池，首次使用时才创建
+     */
+    private static final class LoadExecutorHolder {
+        static final Executor EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "smartadapter-page-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,175 @@
+package just.smartadapter.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 暂存 adapter 的更新操作，合并相邻或重叠的区间，最后一次性分发给 AdapterNotifier
+ * <p>
+ * 操作按发生顺序记录，每个操作的位置都基于前一个操作完成后的数据，因此按顺序重放即可还原整个变化过程
+ */
+final class PendingUpdates implements ListUpdateCallback {
+
+    private static final int TYPE_INSERT = 1;
+    private static final int TYPE_REMOVE = 2;
+    private static final int TYPE_CHANGE = 3;
+    private static final int TYPE_MOVE = 4;
+
+    @NonNull
+    private final List<Op> ops = new ArrayList<>();
+
+    /**
+     * 是否已经退化为整体刷新
+     */
+    private boolean dataSetChanged;
+
+    /**
+     * 整体刷新，之前记录的操作都被覆盖
+     */
+    void onDataSetChanged() {
+        dataSetChanged = true;
+        ops.clear();
+    }
+
+    @Override
+    public void onInserted(int position, int count) {
+        if (dataSetChanged || count <= 0) {
+            return;
+        }
+        final Op last = lastOp();
+        /* 插入位置落在上一次插入的区间内或紧邻其后，合并为一次插入. */
+        if (null != last && last.type == TYPE_INSERT && position >= last.positionStart && position <= last.positionStart + last.itemCount) {
+            last.itemCount += count;
+            return;
+        }
+        ops.add(new Op(TYPE_INSERT, position, count, null));
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+        if (dataSetChanged || count <= 0) {
+            return;
+        }
+        final Op last = lastOp();
+        if (null != last) {
+            /* 移除的恰好是上一次插入区间内的 item，两者相互抵消. */
+            if (last.type == TYPE_INSERT && position >= last.positionStart && position + count <= last.positionStart + last.itemCount) {
+                last.itemCount -= count;
+                if (last.itemCount == 0) {
+                    ops.remove(ops.size() - 1);
+                }
+                return;
+            }
+            /* 与上一次移除的区间相邻，合并为一次移除. */
+            if (last.type == TYPE_REMOVE && last.positionStart >= position && last.positionStart <= position + count) {
+                last.positionStart = position;
+                last.itemCount += count;
+                return;
+            }
+        }
+        ops.add(new Op(TYPE_REMOVE, position, count, null));
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        if (dataSetChanged || fromPosition == toPosition) {
+            return;
+        }
+        ops.add(new Op(TYPE_MOVE, fromPosition, toPosition, null));
+    }
+
+    @Override
+    public void onChanged(int position, int count, @Nullable Object payload) {
+        if (dataSetChanged || count <= 0) {
+            return;
+        }
+        final Op last = lastOp();
+        if (null != last) {
+            /* 刚插入的 item 还未绑定，变化无需单独通知. */
+            if (last.type == TYPE_INSERT && position >= last.positionStart && position + count <= last.positionStart + last.itemCount) {
+                return;
+            }
+            /* 与上一次变化的区间重叠或相邻且 payload 相同，合并为一次变化. */
+            if (last.type == TYPE_CHANGE && Objects.equals(last.payload, payload)
+                    && position <= last.positionStart + last.itemCount && position + count >= last.positionStart) {
+                final int end = Math.max(last.positionStart + last.itemCount, position + count);
+                last.positionStart = Math.min(last.positionStart, position);
+                last.itemCount = end - last.positionStart;
+                return;
+            }
+        }
+        ops.add(new Op(TYPE_CHANGE, position, count, payload));
+    }
+
+    /**
+     * 是否没有需要分发的操作
+     */
+    boolean isEmpty() {
+        return !dataSetChanged && ops.isEmpty();
+    }
+
+    /**
+     * 按顺序将暂存的操作分发给 notifier，回放的操作以 {@link AdapterNotifier#beginDeferredUpdates()} 和 {@link AdapterNotifier#endDeferredUpdates()} 包裹
+     */
+    void dispatchTo(@NonNull AdapterNotifier notifier) {
+        if (dataSetChanged) {
+            notifier.notifyDataSetChanged();
+            return;
+        }
+        notifier.beginDeferredUpdates();
+        try {
+            replayTo(notifier);
+        } finally {
+            notifier.endDeferredUpdates();
+        }
+    }
+
+    private void replayTo(@NonNull AdapterNotifier notifier) {
+        for (Op op : ops) {
+            switch (op.type) {
+                case TYPE_INSERT:
+                    notifier.notifyItemRangeInserted(op.positionStart, op.itemCount);
+                    break;
+                case TYPE_REMOVE:
+                    notifier.notifyItemRangeRemoved(op.positionStart, op.itemCount);
+                    break;
+                case TYPE_CHANGE:
+                    notifier.notifyItemRangeChanged(op.positionStart, op.itemCount, op.payload);
+                    break;
+                case TYPE_MOVE:
+                    notifier.notifyItemMoved(op.positionStart, op.itemCount);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    @Nullable
+    private Op lastOp() {
+        return ops.isEmpty() ? null : ops.get(ops.size() - 1);
+    }
+
+    /**
+     * 单个更新操作，move 时 positionStart 为 fromPosition，itemCount 为 toPosition
+     */
+    private static final class Op {
+        private final int type;
+        private int positionStart;
+        private int itemCount;
+        @Nullable
+        private final Object payload;
+
+        Op(int type, int positionStart, int itemCount, @Nullable Object payload) {
+            this.type = type;
+            this.positionStart = positionStart;
+            this.itemCount = itemCount;
+            this.payload = payload;
+        }
+    }
+}
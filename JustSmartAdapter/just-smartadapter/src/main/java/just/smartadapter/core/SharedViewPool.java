@@ -0,0 +1,178 @@
+package just.smartadapter.core;
+
+import android.util.SparseIntArray;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 可在多个 SmartAdapter、多个 RecyclerView 之间共享的 RecycledViewPool
+ * <p>
+ * 使用同一个 pool 的 adapter 之间，布局相同、尺寸调整相同的 type 会被分配相同的 itemViewType，因此不同 adapter 可以复用彼此回收的 ViewHolder；
+ * 分配的 itemViewType 在进程内不会重复，布局到 itemViewType 的映射只由该 pool 持有，随 pool 一起释放。
+ * 每种 itemViewType 的缓存个数可按布局单独限制
+ * <p>
+ * 尺寸调整只在创建 ViewHolder 时按当时的 RecyclerView 尺寸执行一次，ViewHolder 被宽高不同的 RecyclerView 复用时不会重新调整，
+ * 因此共享的 type 使用的 {@link just.smartadapter.SmartAdapter.ItemSizeRefinery} 不能依赖 RecyclerView 的尺寸；
+ * 需要按 RecyclerView 尺寸调整时，为不同尺寸的 RecyclerView 使用不相等的 ItemSizeRefinery 实例以区分 type，或不使用共享 pool
+ */
+public class SharedViewPool extends RecyclerView.RecycledViewPool {
+
+    /**
+     * 全局 itemViewType 的起始值，避开 SmartAdapter、HeaderFooterAdapter 和 ConcatAdapter 使用的 type 区间
+     */
+    private static final int BASE_SHARED_VIEW_TYPE = 0x40000000;
+
+    /**
+     * RecycledViewPool 默认每种 type 缓存的个数
+     */
+    private static final int DEFAULT_MAX_RECYCLED_VIEWS = 5;
+
+    /**
+     * 下一个分配的 itemViewType，所有 SharedViewPool 共用，保证不同 pool 分配的 type 不重复
+     */
+    private static final AtomicInteger NEXT_SHARED_VIEW_TYPE = new AtomicInteger(BASE_SHARED_VIEW_TYPE);
+
+    /**
+     * 布局 key 到 itemViewType 的映射
+     */
+    @NonNull
+    private final Map<LayoutKey, Integer> viewTypes = new HashMap<>();
+
+    /**
+     * 未单独设置时，每种 itemViewType 的缓存个数
+     */
+    private final int defaultCapacity;
+
+    /**
+     * 按布局设置的缓存个数
+     */
+    @NonNull
+    private final SparseIntArray layoutCapacities = new SparseIntArray();
+
+    /**
+     * 已在本 pool 注册的 itemViewType 到布局的映射
+     */
+    @NonNull
+    private final SparseIntArray viewTypeLayouts = new SparseIntArray();
+
+    /**
+     * 每种 itemViewType 当前的缓存个数上限，RecycledViewPool 没有提供读取的方法，在此记录
+     */
+    @NonNull
+    private final SparseIntArray maxRecycledViews = new SparseIntArray();
+
+    public SharedViewPool() {
+        this(DEFAULT_MAX_RECYCLED_VIEWS);
+    }
+
+    /**
+     * @param defaultCapacity 每种 itemViewType 默认的缓存个数
+     */
+    public SharedViewPool(int defaultCapacity) {
+        this.defaultCapacity = defaultCapacity;
+    }
+
+    /**
+     * 限制某个布局的每种 itemViewType 的缓存个数，对已注册和之后注册的 type 都生效
+     */
+    public void setLayoutCapacity(@LayoutRes int layoutResId, int capacity) {
+        layoutCapacities.put(layoutResId, capacity);
+        for (int i = 0; i < viewTypeLayouts.size(); i++) {
+            if (viewTypeLayouts.valueAt(i) == layoutResId) {
+                setMaxRecycledViews(viewTypeLayouts.keyAt(i), capacity);
+            }
+        }
+    }
+
+    @Override
+    public void setMaxRecycledViews(int viewType, int max) {
+        maxRecycledViews.put(viewType, max);
+        super.setMaxRecycledViews(viewType, max);
+    }
+
+    /**
+     * 获取 itemViewType 当前的缓存个数上限，未设置时为 RecycledViewPool 的默认值
+     */
+    public int getMaxRecycledViews(int viewType) {
+        return maxRecycledViews.get(viewType, DEFAULT_MAX_RECYCLED_VIEWS);
+    }
+
+    /**
+     * 为布局和尺寸调整的组合注册全局 itemViewType
+     *
+     * @param itemWidth  宽度调整，需要实现 equals 才能在不同实例间共享，否则按实例区分
+     * @param itemHeight 高度调整，同上
+     * @param ordinal    同一个 adapter 中该组合第几次出现，用于区分布局相同但绑定不同的 type
+     */
+    public int register(@LayoutRes int layoutResId, @Nullable Object itemWidth, @Nullable Object itemHeight, int ordinal) {
+        final int viewType = viewTypeOf(new LayoutKey(layoutResId, itemWidth, itemHeight, ordinal));
+        if (viewTypeLayouts.indexOfKey(viewType) < 0) {
+            viewTypeLayouts.put(viewType, layoutResId);
+            setMaxRecycledViews(viewType, layoutCapacities.get(layoutResId, defaultCapacity));
+        }
+        return viewType;
+    }
+
+    /**
+     * 是否是共享 pool 分配的 itemViewType，这类 type 进程内唯一，包装 adapter 无需重新映射
+     */
+    public static boolean isSharedViewType(int viewType) {
+        return viewType >= BASE_SHARED_VIEW_TYPE;
+    }
+
+    private int viewTypeOf(@NonNull LayoutKey layoutKey) {
+        Integer viewType = viewTypes.get(layoutKey);
+        if (null == viewType) {
+            viewType = NEXT_SHARED_VIEW_TYPE.getAndIncrement();
+            viewTypes.put(layoutKey, viewType);
+        }
+        return viewType;
+    }
+
+    /**
+     * 布局、尺寸调整的组合
+     */
+    private static final class LayoutKey {
+        private final int layoutResId;
+        @Nullable
+        private final Object itemWidth;
+        @Nullable
+        private final Object itemHeight;
+        private final int ordinal;
+
+        LayoutKey(int layoutResId, @Nullable Object itemWidth, @Nullable Object itemHeight, int ordinal) {
+            this.layoutResId = layoutResId;
+            this.itemWidth = itemWidth;
+            this.itemHeight = itemHeight;
+            this.ordinal = ordinal;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof LayoutKey)) {
+                return false;
+            }
+            final LayoutKey that = (LayoutKey) o;
+            return layoutResId == that.layoutResId
+                    && ordinal == that.ordinal
+                    && Objects.equals(itemWidth, that.itemWidth)
+                    && Objects.equals(itemHeight, that.itemHeight);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(layoutResId, itemWidth, itemHeight, ordinal);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package just.smartadapter.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * type key 到 itemViewType 的只读映射表，查找耗时与 type 数量无关
+ * <p>
+ * key 分布紧凑时使用稠密数组直接寻址，否则使用开放寻址的 int 哈希表
+ */
+public final class TypeKeyTable {
+
+    /**
+     * 未找到对应的 itemViewType
+     */
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    /**
+     * 稠密数组模式下 key 的最小值
+     */
+    private final int minKey;
+
+    /**
+     * 稠密数组模式下以 key - minKey 为下标的 itemViewType，哈希模式下为 null
+     */
+    private final int[] denseTypes;
+
+    /**
+     * 哈希模式下的 key 槽位
+     */
+    private final int[] hashKeys;
+
+    /**
+     * 哈希模式下的 itemViewType 槽位，NOT_FOUND 表示空槽
+     */
+    private final int[] hashTypes;
+
+    private final int mask;
+
+    /**
+     * @param keys  type key 集合
+     * @param types 与 keys 一一对应的 itemViewType
+     */
+    public TypeKeyTable(@NonNull int[] keys, @NonNull int[] types) {
+        if (keys.length != types.length) {
+            throw new IllegalArgumentException("keys and types must have the same length");
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int key : keys) {
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+        final long range = keys.length == 0 ? 0 : (long) max - min + 1;
+        if (range <= Math.max(64, keys.length * 4L)) {
+            this.minKey = keys.length == 0 ? 0 : min;
+            this.denseTypes = new int[(int) range];
+            Arrays.fill(this.denseTypes, NOT_FOUND);
+            for (int i = 0; i < keys.length; i++) {
+                final int index = keys[i] - this.minKey;
+                checkNotDuplicate(this.denseTypes[index], keys[i]);
+                this.denseTypes[index] = types[i];
+            }
+            this.hashKeys = null;
+            this.hashTypes = null;
+            this.mask = 0;
+        } else {
+            int capacity = 4;
+            while (capacity < keys.length * 2) {
+                capacity <<= 1;
+            }
+            this.minKey = 0;
+            this.denseTypes = null;
+            this.hashKeys = new int[capacity];
+            this.hashTypes = new int[capacity];
+            Arrays.fill(this.hashTypes, NOT_FOUND);
+            this.mask = capacity - 1;
+            for (int i = 0; i < keys.length; i++) {
+                int slot = hash(keys[i]) & mask;
+                while (hashTypes[slot] != NOT_FOUND && hashKeys[slot] != keys[i]) {
+                    slot = (slot + 1) & mask;
+                }
+                checkNotDuplicate(hashTypes[slot], keys[i]);
+                hashKeys[slot] = keys[i];
+                hashTypes[slot] = types[i];
+            }
+        }
+    }
+
+    /**
+     * 获取 key 对应的 itemViewType，不存在时返回 {@link #NOT_FOUND}
+     */
+    public int get(int key) {
+        final int[] dense = this.denseTypes;
+        if (null != dense) {
+            final int index = key - minKey;
+            return index >= 0 && index < dense.length ? dense[index] : NOT_FOUND;
+        }
+        int slot = hash(key) & mask;
+        while (hashTypes[slot] != NOT_FOUND) {
+            if (hashKeys[slot] == key) {
+                return hashTypes[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    private static int hash(int key) {
+        final int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static void checkNotDuplicate(int existingType, int key) {
+        if (existingType != NOT_FOUND) {
+            throw new IllegalArgumentException("Duplicate type key: " + key);
+        }
+    }
+}
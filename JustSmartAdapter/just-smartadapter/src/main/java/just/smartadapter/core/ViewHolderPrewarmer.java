@@ -0,0 +1,107 @@
+package just.smartadapter.core;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * 利用主线程空闲时间预先创建 ViewHolder 并放入 RecycledViewPool，减少首帧的 inflate 耗时
+ * <p>
+ * 每次空闲只创建一个 ViewHolder，避免长时间占用主线程；RecyclerView 完成测量前不会创建，以便 item 尺寸调整能拿到容器宽高。
+ * 预创建个数超过 pool 的缓存上限时只会调高上限，不会调低；普通的 RecycledViewPool 无法读取当前上限，
+ * 只在预创建个数超过默认上限时调高，自行设置了更高上限的 pool 应使用 {@link SharedViewPool}
+ */
+public final class ViewHolderPrewarmer implements MessageQueue.IdleHandler {
+
+    /**
+     * RecycledViewPool 默认每种 type 缓存的个数
+     */
+    private static final int DEFAULT_MAX_SCRAP = 5;
+
+    @NonNull
+    private final RecyclerView recyclerView;
+
+    @NonNull
+    private final RecyclerView.Adapter<?> adapter;
+
+    @NonNull
+    private final int[] viewTypes;
+
+    @NonNull
+    private final int[] counts;
+
+    /**
+     * 当前正在预创建的 type 下标
+     */
+    private int index;
+
+    /**
+     * 当前 type 已预创建的个数
+     */
+    private int created;
+
+    private boolean stopped;
+
+    /**
+     * @param viewTypes 需要预创建的 itemViewType，必须与 RecyclerView 从 pool 取用时的 itemViewType 相同
+     * @param counts    与 viewTypes 一一对应的预创建个数
+     */
+    public ViewHolderPrewarmer(@NonNull RecyclerView recyclerView, @NonNull RecyclerView.Adapter<?> adapter, @NonNull int[] viewTypes, @NonNull int[] counts) {
+        this.recyclerView = recyclerView;
+        this.adapter = adapter;
+        this.viewTypes = viewTypes;
+        this.counts = counts;
+    }
+
+    /**
+     * 开始预创建，必须在主线程调用
+     */
+    public void start() {
+        final RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+        for (int i = 0; i < viewTypes.length; i++) {
+            /* 确保 pool 能容纳预创建的 ViewHolder. */
+            final int maxRecycledViews = pool instanceof SharedViewPool ? ((SharedViewPool) pool).getMaxRecycledViews(viewTypes[i]) : DEFAULT_MAX_SCRAP;
+            if (counts[i] > maxRecycledViews) {
+                pool.setMaxRecycledViews(viewTypes[i], counts[i]);
+            }
+        }
+        Looper.myQueue().addIdleHandler(this);
+    }
+
+    /**
+     * 停止预创建，必须在主线程调用
+     */
+    public void stop() {
+        stopped = true;
+        Looper.myQueue().removeIdleHandler(this);
+    }
+
+    @Override
+    public boolean queueIdle() {
+        if (stopped) {
+            return false;
+        }
+
+        /* 等待 RecyclerView 完成测量. */
+        if (recyclerView.getMeasuredWidth() == 0 && recyclerView.getMeasuredHeight() == 0) {
+            return true;
+        }
+
+        /* 跳过已创建足够个数或 pool 中已经足够的 type. */
+        final RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+        while (index < viewTypes.length && (created >= counts[index] || pool.getRecycledViewCount(viewTypes[index]) >= counts[index])) {
+            index++;
+            created = 0;
+        }
+        if (index >= viewTypes.length) {
+            stopped = true;
+            return false;
+        }
+
+        pool.putRecycledView(adapter.createViewHolder(recyclerView, viewTypes[index]));
+        created++;
+        return true;
+    }
+}
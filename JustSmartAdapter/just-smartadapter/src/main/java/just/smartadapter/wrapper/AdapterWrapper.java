@@ -6,9 +6,15 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.List;
+
 
 /**
  * adapter 包装类
+ * <p>
+ * 默认父类把 onBindViewHolder、getItemViewType 等方法收到的位置原样交给 origin，子类需要先自行换算为 origin 的位置再调用父类。
+ * 子类只在 origin 的所有 item 之前或之后添加 item 时，可以重写 {@link #isEdgeItemsOnly()} 返回 true：此时子类只处理自己添加的 item，
+ * 其它位置原样交给父类，传入的始终是包装后的位置；父类把多层包装的位置偏移合并为一个偏移量，落在最内层 adapter 范围内的位置直接分发给最内层 adapter，不再逐层换算
  */
 public abstract class AdapterWrapper extends RecyclerView.Adapter implements DeliverAdapterDataObserver.DataObserver {
 
@@ -20,8 +26,26 @@ public abstract class AdapterWrapper extends RecyclerView.Adapter implements Del
      */
     private final DeliverAdapterDataObserver deliverAdapterDataObserver = new DeliverAdapterDataObserver(this);
 
+    /**
+     * 沿 {@link #isEdgeItemsOnly()} 的包装链能直接到达的最内层 adapter，首次使用时确定
+     */
+    @Nullable
+    private RecyclerView.Adapter innermostAdapter;
+
+    /**
+     * 合并后的位置偏移，最内层 adapter 的 item 在包装后的位置为 [flattenedOffset, flattenedOffset + 最内层 item 个数)
+     */
+    private int flattenedOffset = INVALID_OFFSET;
+
+    private static final int INVALID_OFFSET = -1;
+
     public AdapterWrapper(@NonNull RecyclerView.Adapter originAdapter) {
         this.originAdapter = originAdapter;
+
+        /* 与 origin adapter 保持一致，origin 需要在包装前开启 stable id. */
+        if (originAdapter.hasStableIds()) {
+            setHasStableIds(true);
+        }
     }
 
     @NonNull
@@ -29,6 +53,85 @@ public abstract class AdapterWrapper extends RecyclerView.Adapter implements Del
         return originAdapter;
     }
 
+    /**
+     * 包装后的位置可以直接换算到的最内层 adapter；未声明 {@link #isEdgeItemsOnly()} 的包装层不会被跨过
+     */
+    @NonNull
+    public final RecyclerView.Adapter getInnermostAdapter() {
+        if (null == innermostAdapter) {
+            innermostAdapter = isEdgeItemsOnly() && originAdapter instanceof AdapterWrapper && ((AdapterWrapper) originAdapter).isEdgeItemsOnly()
+                    ? ((AdapterWrapper) originAdapter).getInnermostAdapter()
+                    : originAdapter;
+        }
+        return innermostAdapter;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 位置映射
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 子类是否只在 origin 的所有 item 之前或之后添加 item，不插在 origin 的 item 之间
+     * <p>
+     * 返回 true 时父类方法收到的是包装后的位置，由父类按 {@link #getOriginPositionOffset()} 换算；默认返回 false，父类把位置原样交给 origin。
+     * 返回值在 adapter 的生命周期内不能变化
+     */
+    protected boolean isEdgeItemsOnly() {
+        return false;
+    }
+
+    /**
+     * 本层在 origin 的 item 之前添加的 item 个数，即 origin 的位置加上该值得到包装后的位置，只在 {@link #isEdgeItemsOnly()} 为 true 时使用
+     * <p>
+     * 该值变化时子类需要调用 {@link #invalidatePositionMapping()}
+     */
+    protected int getOriginPositionOffset() {
+        return 0;
+    }
+
+    /**
+     * 本层或内层的位置偏移发生变化，origin 的通知会自动调用
+     */
+    protected final void invalidatePositionMapping() {
+        flattenedOffset = INVALID_OFFSET;
+    }
+
+    private int getFlattenedOffset() {
+        if (flattenedOffset == INVALID_OFFSET) {
+            if (isEdgeItemsOnly()) {
+                final int innerOffset = getInnermostAdapter() != originAdapter ? ((AdapterWrapper) originAdapter).getFlattenedOffset() : 0;
+                flattenedOffset = getOriginPositionOffset() + innerOffset;
+            } else {
+                flattenedOffset = 0;
+            }
+        }
+        return flattenedOffset;
+    }
+
+    /**
+     * 把包装后的位置换算为最内层 adapter 中的位置
+     *
+     * @return 不属于最内层 adapter 时返回 {@link RecyclerView#NO_POSITION}
+     */
+    public final int toInnermostPosition(int position) {
+        final int innermostPosition = position - getFlattenedOffset();
+        return innermostPosition >= 0 && innermostPosition < getInnermostAdapter().getItemCount() ? innermostPosition : RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * 把包装后的位置换算为 origin 中的位置
+     */
+    protected final int toOriginPosition(int position) {
+        return position - getOriginPositionOffset();
+    }
+
+    /**
+     * 父类方法把收到的位置交给 origin 前的换算，未声明 {@link #isEdgeItemsOnly()} 时子类已经换算过
+     */
+    private int toDeliveredPosition(int position) {
+        return isEdgeItemsOnly() ? toOriginPosition(position) : position;
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // override
     ///////////////////////////////////////////////////////////////////////////
@@ -41,8 +144,26 @@ public abstract class AdapterWrapper extends RecyclerView.Adapter implements Del
 
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
-        //noinspection unchecked
-        originAdapter.onBindViewHolder(holder, position);
+        final int innermostPosition = toInnermostPosition(position);
+        if (RecyclerView.NO_POSITION != innermostPosition) {
+            //noinspection unchecked
+            getInnermostAdapter().onBindViewHolder(holder, innermostPosition);
+        } else {
+            //noinspection unchecked
+            originAdapter.onBindViewHolder(holder, toDeliveredPosition(position));
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List payloads) {
+        final int innermostPosition = toInnermostPosition(position);
+        if (RecyclerView.NO_POSITION != innermostPosition) {
+            //noinspection unchecked
+            getInnermostAdapter().onBindViewHolder(holder, innermostPosition, payloads);
+        } else {
+            //noinspection unchecked
+            originAdapter.onBindViewHolder(holder, toDeliveredPosition(position), payloads);
+        }
     }
 
     @Override
@@ -52,13 +173,29 @@ public abstract class AdapterWrapper extends RecyclerView.Adapter implements Del
 
     @Override
     public int getItemViewType(int position) {
-        return originAdapter.getItemViewType(position);
+        final int innermostPosition = toInnermostPosition(position);
+        if (RecyclerView.NO_POSITION != innermostPosition) {
+            return getInnermostAdapter().getItemViewType(innermostPosition);
+        }
+        return originAdapter.getItemViewType(toDeliveredPosition(position));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        final int innermostPosition = toInnermostPosition(position);
+        if (RecyclerView.NO_POSITION != innermostPosition) {
+            return getInnermostAdapter().getItemId(innermostPosition);
+        }
+        return originAdapter.getItemId(toDeliveredPosition(position));
     }
 
     @Override
     public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
         originAdapter.onAttachedToRecyclerView(recyclerView);
         originAdapter.registerAdapterDataObserver(deliverAdapterDataObserver);
+
+        /* 未 attach 时收不到内层的通知，内层的偏移可能已经变化. */
+        invalidatePositionMapping();
     }
 
     @Override
@@ -71,8 +208,11 @@ public abstract class AdapterWrapper extends RecyclerView.Adapter implements Del
     // implements DeliverAdapterDataObserver.DataObserver
     ///////////////////////////////////////////////////////////////////////////
 
+    /* 内层的 header 等增删时会发出通知，收到通知时让合并的偏移失效. */
+
     @Override
     public void onOriginChanged() {
+        invalidatePositionMapping();
         this.notifyDataSetChanged();
     }
 
@@ -88,16 +228,42 @@ public abstract class AdapterWrapper extends RecyclerView.Adapter implements Del
 
     @Override
     public void onOriginItemRangeInserted(int positionStart, int itemCount) {
+        invalidatePositionMapping();
         this.notifyItemRangeInserted(positionStart, itemCount);
     }
 
     @Override
     public void onOriginItemRangeRemoved(int positionStart, int itemCount) {
+        invalidatePositionMapping();
         this.notifyItemRangeRemoved(positionStart, itemCount);
     }
 
     @Override
     public void onOriginItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
-        this.notifyItemMoved(fromPosition, toPosition);
+        invalidatePositionMapping();
+        notifyItemRangeMoved(this, fromPosition, toPosition, itemCount);
+    }
+
+    /**
+     * RecyclerView 只支持单个 item 的移动，把 itemCount 个连续 item 的移动拆分为 itemCount 次单个 item 的移动
+     *
+     * @param fromPosition 移动前第一个 item 的位置
+     * @param toPosition   移动后第一个 item 的位置
+     */
+    static void notifyItemRangeMoved(@NonNull RecyclerView.Adapter adapter, int fromPosition, int toPosition, int itemCount) {
+        if (fromPosition == toPosition) {
+            return;
+        }
+        if (fromPosition < toPosition) {
+            /* 向后移动：每次把区间的第一个 item 移到区间最终的末尾. */
+            for (int i = 0; i < itemCount; i++) {
+                adapter.notifyItemMoved(fromPosition, toPosition + itemCount - 1);
+            }
+        } else {
+            /* 向前移动：依次把区间的 item 移到最终的位置. */
+            for (int i = 0; i < itemCount; i++) {
+                adapter.notifyItemMoved(fromPosition + i, toPosition + i);
+            }
+        }
     }
 }
@@ -0,0 +1,548 @@
+package just.smartadapter.wrapper;
+
+import android.util.SparseIntArray;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.SparseArrayCompat;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import just.smartadapter.core.CachedSpanSizeLookup;
+import just.smartadapter.core.CommonViewHolder;
+import just.smartadapter.core.SharedViewPool;
+
+
+/**
+ * 将多个 adapter 按顺序拼接成一个 adapter，每个 adapter 是一个 section
+ * <p>
+ * 每个 section 的 item 个数记录在树状数组中，全局位置到 section 内位置的换算、section 内 item 增删后的更新都是 O(log n)；
+ * 各 section 的 itemViewType 会被重新分配为进程内唯一的 type，不同 section、不同 ConcatAdapter 的 type 不会冲突，
+ * 共享 RecycledViewPool 时 ViewHolder 不会被分发给其它列表的 adapter；{@link SharedViewPool} 分配的 type 本身全局唯一，原样使用，
+ * 使用同一个 pool 的 section 之间可以复用 ViewHolder；
+ * section 的 notifyXXX 会加上 section 的偏移量后转发，section 的 item 个数变化后，之后的 section 会收到 {@link CommonViewHolder#PAYLOAD_POSITION_SHIFTED}，
+ * 以便 SmartAdapter 更新绑定时记录的位置偏移。
+ * <p>
+ * 不支持 stable id；只应在主线程使用
+ */
+public class ConcatAdapter extends RecyclerView.Adapter {
+
+    /**
+     * 重新分配的 itemViewType 从该值开始递增，位于 SmartAdapter 常用的 type 与 {@link SharedViewPool} 的 type 之间
+     */
+    private static final int BASE_CONCAT_VIEW_TYPE = 0x20000000;
+
+    /**
+     * 下一个重新分配的 itemViewType，进程内所有 ConcatAdapter 共用，移除后不再复用
+     */
+    private static final AtomicInteger NEXT_VIEW_TYPE = new AtomicInteger(BASE_CONCAT_VIEW_TYPE);
+
+    /**
+     * 按顺序排列的 section
+     */
+    @NonNull
+    private final List<Section> sections = new ArrayList<>();
+
+    /**
+     * 各 section item 个数的树状数组，下标从 1 开始
+     */
+    @NonNull
+    private int[] itemCountTree = new int[1];
+
+    /**
+     * 所有 section 的 item 总数
+     */
+    private int itemCount;
+
+    /**
+     * 全局 itemViewType 到所属 section 的映射
+     */
+    @NonNull
+    private final SparseArrayCompat<Section> viewTypeOwners = new SparseArrayCompat<>();
+
+    /**
+     * 全局 itemViewType 到 section 内 itemViewType 的映射
+     */
+    @NonNull
+    private final SparseIntArray localViewTypes = new SparseIntArray();
+
+    /**
+     * 最近一次 {@link #findSection(int)} 得到的 section 内位置
+     */
+    private int foundLocalPosition;
+
+    @NonNull
+    private final List<RecyclerView> attachedRecyclerViews = new ArrayList<>();
+
+    public ConcatAdapter() {
+    }
+
+    public ConcatAdapter(@NonNull RecyclerView.Adapter... adapters) {
+        for (RecyclerView.Adapter adapter : adapters) {
+            addAdapter(adapter);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // section 管理
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 在末尾添加 section
+     */
+    public void addAdapter(@NonNull RecyclerView.Adapter adapter) {
+        addAdapter(sections.size(), adapter);
+    }
+
+    /**
+     * 在指定位置插入 section，同一个 adapter 只能添加一次
+     */
+    public void addAdapter(int index, @NonNull RecyclerView.Adapter adapter) {
+        if (indexOfAdapter(adapter) >= 0) {
+            throw new IllegalArgumentException("Adapter " + adapter + " has already been added.");
+        }
+        final Section section = new Section(adapter);
+        sections.add(index, section);
+        rebuildItemCountTree();
+        if (section.itemCount > 0) {
+            notifyItemRangeInserted(offsetOf(index), section.itemCount);
+            notifySectionsShifted(index + 1);
+        }
+
+        /* 之后 section 的变化（包括 attach 时发出的通知）都经由 section 转发. */
+        adapter.registerAdapterDataObserver(section);
+        for (RecyclerView recyclerView : attachedRecyclerViews) {
+            attachSection(section, recyclerView);
+        }
+    }
+
+    /**
+     * 移除 section
+     *
+     * @return 是否存在并移除了该 section
+     */
+    public boolean removeAdapter(@NonNull RecyclerView.Adapter adapter) {
+        final int index = indexOfAdapter(adapter);
+        if (index < 0) {
+            return false;
+        }
+        final int offset = offsetOf(index);
+        final Section section = sections.remove(index);
+        rebuildItemCountTree();
+        adapter.unregisterAdapterDataObserver(section);
+        for (RecyclerView recyclerView : attachedRecyclerViews) {
+            //noinspection unchecked
+            adapter.onDetachedFromRecyclerView(recyclerView);
+        }
+
+        /* 该 section 的 type 不再使用. */
+        for (int i = viewTypeOwners.size() - 1; i >= 0; i--) {
+            if (viewTypeOwners.valueAt(i) == section) {
+                localViewTypes.delete(viewTypeOwners.keyAt(i));
+                viewTypeOwners.removeAt(i);
+            }
+        }
+        if (section.itemCount > 0) {
+            notifyItemRangeRemoved(offset, section.itemCount);
+            notifySectionsShifted(index);
+        }
+        return true;
+    }
+
+    /**
+     * 第 index 个及之后的 section 整体偏移，RecyclerView 只移动而不重新绑定它们的 item，通知它们重新计算绑定时记录的位置偏移
+     */
+    private void notifySectionsShifted(int index) {
+        if (index >= sections.size()) {
+            return;
+        }
+        final int offset = offsetOf(index);
+        if (offset < itemCount) {
+            notifyItemRangeChanged(offset, itemCount - offset, CommonViewHolder.PAYLOAD_POSITION_SHIFTED);
+        }
+    }
+
+    /**
+     * 按顺序获取所有 section 的 adapter
+     */
+    @NonNull
+    public List<RecyclerView.Adapter> getAdapters() {
+        final List<RecyclerView.Adapter> adapters = new ArrayList<>(sections.size());
+        for (Section section : sections) {
+            adapters.add(section.adapter);
+        }
+        return Collections.unmodifiableList(adapters);
+    }
+
+    /**
+     * 获取 section 第一个 item 的全局位置
+     *
+     * @return adapter 未添加时返回 {@link RecyclerView#NO_POSITION}
+     */
+    public int getAdapterOffset(@NonNull RecyclerView.Adapter adapter) {
+        final int index = indexOfAdapter(adapter);
+        return index < 0 ? RecyclerView.NO_POSITION : offsetOf(index);
+    }
+
+    private int indexOfAdapter(@NonNull RecyclerView.Adapter adapter) {
+        for (int i = 0; i < sections.size(); i++) {
+            if (sections.get(i).adapter == adapter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // 树状数组
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * section 增删后重建树状数组，O(n)
+     */
+    private void rebuildItemCountTree() {
+        final int size = sections.size();
+        final int[] tree = new int[size + 1];
+        int total = 0;
+        for (int i = 1; i <= size; i++) {
+            final Section section = sections.get(i - 1);
+            section.index = i - 1;
+            total += section.itemCount;
+            tree[i] += section.itemCount;
+            final int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+        this.itemCountTree = tree;
+        this.itemCount = total;
+    }
+
+    /**
+     * 第 index 个 section 的 item 个数变化
+     */
+    private void addItemCount(int index, int delta) {
+        for (int i = index + 1; i < itemCountTree.length; i += i & -i) {
+            itemCountTree[i] += delta;
+        }
+        itemCount += delta;
+    }
+
+    /**
+     * 第 index 个 section 之前所有 section 的 item 个数之和
+     */
+    private int offsetOf(int index) {
+        int offset = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            offset += itemCountTree[i];
+        }
+        return offset;
+    }
+
+    /**
+     * 查找全局位置所在的 section，section 内位置记录在 foundLocalPosition 中
+     */
+    @NonNull
+    private Section findSection(int position) {
+        if (position < 0 || position >= itemCount) {
+            throw new IndexOutOfBoundsException("Position " + position + ", item count " + itemCount);
+        }
+
+        /* 在树状数组上二分，找到前缀和不超过 position 的最后一个 section，跳过 item 个数为 0 的 section. */
+        final int size = itemCountTree.length - 1;
+        int index = 0;
+        int remaining = position;
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+            final int next = index + step;
+            if (next <= size && itemCountTree[next] <= remaining) {
+                index = next;
+                remaining -= itemCountTree[next];
+            }
+        }
+        foundLocalPosition = remaining;
+        return sections.get(index);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // override
+    ///////////////////////////////////////////////////////////////////////////
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return ownerOf(viewType).adapter.onCreateViewHolder(parent, localViewTypes.get(viewType));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        final Section section = findSection(position);
+        //noinspection unchecked
+        section.adapter.onBindViewHolder(holder, foundLocalPosition);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List payloads) {
+        final Section section = findSection(position);
+        //noinspection unchecked
+        section.adapter.onBindViewHolder(holder, foundLocalPosition, payloads);
+    }
+
+    @Override
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        final Section section = findSection(position);
+        return section.globalViewTypeOf(section.adapter.getItemViewType(foundLocalPosition));
+    }
+
+    @NonNull
+    private Section ownerOf(int viewType) {
+        final Section section = viewTypeOwners.get(viewType);
+        if (null == section) {
+            throw new IllegalStateException("No section for itemViewType " + viewType);
+        }
+        return section;
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull RecyclerView.ViewHolder holder) {
+        final Section section = viewTypeOwners.get(holder.getItemViewType());
+        if (null != section) {
+            //noinspection unchecked
+            section.adapter.onViewAttachedToWindow(holder);
+        }
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(@NonNull RecyclerView.ViewHolder holder) {
+        final Section section = viewTypeOwners.get(holder.getItemViewType());
+        if (null != section) {
+            //noinspection unchecked
+            section.adapter.onViewDetachedFromWindow(holder);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        final Section section = viewTypeOwners.get(holder.getItemViewType());
+        if (null != section) {
+            //noinspection unchecked
+            section.adapter.onViewRecycled(holder);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // attach、兼容 grid layout
+    ///////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        attachedRecyclerViews.add(recyclerView);
+        for (Section section : sections) {
+            attachSection(section, recyclerView);
+        }
+
+        /* section 在 attach 前可能没有发出通知，重新同步个数. */
+        for (Section section : sections) {
+            section.itemCount = section.adapter.getItemCount();
+        }
+        rebuildItemCountTree();
+
+        final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof GridLayoutManager) {
+            final GridLayoutManager gridLayoutManager = (GridLayoutManager) layoutManager;
+            final GridLayoutManager.SpanSizeLookup spanSizeLookup = gridLayoutManager.getSpanSizeLookup();
+            if (!(spanSizeLookup instanceof ConcatSpanSizeLookup)) {
+                gridLayoutManager.setSpanSizeLookup(new ConcatSpanSizeLookup(gridLayoutManager, spanSizeLookup));
+            }
+        }
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        attachedRecyclerViews.remove(recyclerView);
+        for (Section section : sections) {
+            //noinspection unchecked
+            section.adapter.onDetachedFromRecyclerView(recyclerView);
+        }
+        final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof GridLayoutManager) {
+            final GridLayoutManager gridLayoutManager = (GridLayoutManager) layoutManager;
+            final GridLayoutManager.SpanSizeLookup spanSizeLookup = gridLayoutManager.getSpanSizeLookup();
+            if (spanSizeLookup instanceof ConcatSpanSizeLookup) {
+                ((ConcatSpanSizeLookup) spanSizeLookup).release();
+                gridLayoutManager.setSpanSizeLookup(((ConcatSpanSizeLookup) spanSizeLookup).origin);
+            }
+        }
+    }
+
+    /**
+     * 让 section attach 到 RecyclerView
+     * <p>
+     * section 在 attach 时可能会包装 GridLayoutManager 的 SpanSizeLookup，包装后的 lookup 按 section 内的位置计算，
+     * 因此 attach 时先还原为原始的 lookup，attach 后把 section 设置的 lookup 取出单独保存，再恢复当前的 lookup
+     */
+    private void attachSection(@NonNull Section section, @NonNull RecyclerView recyclerView) {
+        final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (!(layoutManager instanceof GridLayoutManager)) {
+            //noinspection unchecked
+            section.adapter.onAttachedToRecyclerView(recyclerView);
+            return;
+        }
+        final GridLayoutManager gridLayoutManager = (GridLayoutManager) layoutManager;
+        final GridLayoutManager.SpanSizeLookup current = gridLayoutManager.getSpanSizeLookup();
+        final GridLayoutManager.SpanSizeLookup origin = current instanceof ConcatSpanSizeLookup ? ((ConcatSpanSizeLookup) current).origin : current;
+        gridLayoutManager.setSpanSizeLookup(origin);
+        //noinspection unchecked
+        section.adapter.onAttachedToRecyclerView(recyclerView);
+        final GridLayoutManager.SpanSizeLookup sectionSpanSizeLookup = gridLayoutManager.getSpanSizeLookup();
+        section.spanSizeLookup = sectionSpanSizeLookup != origin ? sectionSpanSizeLookup : null;
+        gridLayoutManager.setSpanSizeLookup(current);
+    }
+
+    /**
+     * 按 section 分发 spanSize，section 没有设置 lookup 时使用原始的 lookup
+     */
+    private final class ConcatSpanSizeLookup extends CachedSpanSizeLookup {
+
+        @NonNull
+        private final GridLayoutManager.SpanSizeLookup origin;
+
+        ConcatSpanSizeLookup(@NonNull GridLayoutManager gridLayoutManager, @NonNull GridLayoutManager.SpanSizeLookup origin) {
+            super(ConcatAdapter.this, gridLayoutManager);
+            this.origin = origin;
+        }
+
+        @Override
+        protected int computeSpanSize(int position) {
+            final Section section = findSection(position);
+            final GridLayoutManager.SpanSizeLookup spanSizeLookup = section.spanSizeLookup;
+            return null != spanSizeLookup ? spanSizeLookup.getSpanSize(foundLocalPosition) : origin.getSpanSize(position);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // section
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * 一个子 adapter，同时负责把它的 notifyXXX 加上偏移量后转发
+     */
+    private final class Section extends RecyclerView.AdapterDataObserver {
+
+        @NonNull
+        final RecyclerView.Adapter adapter;
+
+        /**
+         * section 内 itemViewType 到全局 itemViewType 的映射
+         */
+        @NonNull
+        final SparseIntArray globalViewTypes = new SparseIntArray();
+
+        /**
+         * 在 sections 中的下标
+         */
+        int index;
+
+        /**
+         * 最近一次通知后的 item 个数
+         */
+        int itemCount;
+
+        /**
+         * section attach 时设置的 SpanSizeLookup
+         */
+        @Nullable
+        GridLayoutManager.SpanSizeLookup spanSizeLookup;
+
+        Section(@NonNull RecyclerView.Adapter adapter) {
+            this.adapter = adapter;
+            this.itemCount = adapter.getItemCount();
+        }
+
+        int globalViewTypeOf(int localViewType) {
+            if (SharedViewPool.isSharedViewType(localViewType)) {
+                /* 多个 section 可能使用同一个共享 type，由先出现的 section 创建 ViewHolder，它被移除后交给下一个使用该 type 的 section. */
+                if (null == viewTypeOwners.get(localViewType)) {
+                    viewTypeOwners.put(localViewType, this);
+                    localViewTypes.put(localViewType, localViewType);
+                }
+                return localViewType;
+            }
+            final int i = globalViewTypes.indexOfKey(localViewType);
+            if (i >= 0) {
+                return globalViewTypes.valueAt(i);
+            }
+            final int viewType = NEXT_VIEW_TYPE.getAndIncrement();
+            globalViewTypes.put(localViewType, viewType);
+            viewTypeOwners.put(viewType, this);
+            localViewTypes.put(viewType, localViewType);
+            return viewType;
+        }
+
+        /**
+         * 整体刷新时只通知该 section 所在的范围
+         */
+        @Override
+        public void onChanged() {
+            final int oldItemCount = itemCount;
+            final int newItemCount = adapter.getItemCount();
+            itemCount = newItemCount;
+            addItemCount(index, newItemCount - oldItemCount);
+            final int offset = offsetOf(index);
+            final int changedCount = Math.min(oldItemCount, newItemCount);
+            if (changedCount > 0) {
+                notifyItemRangeChanged(offset, changedCount);
+            }
+            if (newItemCount > oldItemCount) {
+                notifyItemRangeInserted(offset + oldItemCount, newItemCount - oldItemCount);
+            } else if (newItemCount < oldItemCount) {
+                notifyItemRangeRemoved(offset + newItemCount, oldItemCount - newItemCount);
+            }
+            if (newItemCount != oldItemCount) {
+                notifySectionsShifted(index + 1);
+            }
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            notifyItemRangeChanged(offsetOf(index) + positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            notifyItemRangeChanged(offsetOf(index) + positionStart, itemCount, payload);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            this.itemCount += itemCount;
+            addItemCount(index, itemCount);
+            notifyItemRangeInserted(offsetOf(index) + positionStart, itemCount);
+            notifySectionsShifted(index + 1);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            this.itemCount -= itemCount;
+            addItemCount(index, -itemCount);
+            notifyItemRangeRemoved(offsetOf(index) + positionStart, itemCount);
+            notifySectionsShifted(index + 1);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            final int offset = offsetOf(index);
+            AdapterWrapper.notifyItemRangeMoved(ConcatAdapter.this, offset + fromPosition, offset + toPosition, itemCount);
+        }
+    }
+}
@@ -10,15 +10,48 @@ import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import just.smartadapter.core.CachedSpanSizeLookup;
+import just.smartadapter.core.CommonViewHolder;
+
 
 public class HeaderFooterAdapter extends AdapterWrapper {
-    private static final int BASE_ITEM_TYPE_HEADER = -10000;
-    private static final int BASE_ITEM_TYPE_FOOTER = -20000;
+    /**
+     * header、footer 的 itemViewType 从该值开始递减分配，进程内每个添加过的 view 都有唯一的 type，移除后不再复用；
+     * 多层 HeaderFooterAdapter 嵌套时各层的 type 也不会冲突
+     */
+    private static final int BASE_ITEM_TYPE_FIXED_VIEW = -10000;
+
+    /**
+     * header、footer 的 stable id 使用 [Long.MIN_VALUE, Long.MIN_VALUE + 2^32) 区间，由 itemViewType 映射，origin 的 id 不应落在该区间
+     */
+    private static final long BASE_ITEM_ID = Long.MIN_VALUE;
+
+    // itemViewType -> header、footer view
+    private final SparseArrayCompat<View> fixedViews = new SparseArrayCompat<>();
+    // 按顺序排列的 header 的 itemViewType
+    private final List<Integer> headerTypes = new ArrayList<>();
+    // 按顺序排列的 footer 的 itemViewType
+    private final List<Integer> footerTypes = new ArrayList<>();
+
+    /**
+     * 下一个分配给 header、footer 的 itemViewType
+     */
+    private static final AtomicInteger NEXT_FIXED_VIEW_TYPE = new AtomicInteger(BASE_ITEM_TYPE_FIXED_VIEW);
+
+    /**
+     * 当前安装在 GridLayoutManager 上的 SpanSizeLookup
+     */
+    @Nullable
+    private CachedSpanSizeLookup spanSizeLookup;
 
-    // header set
-    private SparseArrayCompat<View> headers = new SparseArrayCompat<>();
-    // footer set
-    private SparseArrayCompat<View> footers = new SparseArrayCompat<>();
+    /**
+     * origin 最近一次通知后的 item 个数，origin 整体刷新时用于计算变化的范围
+     */
+    private int originItemCount;
 
     public HeaderFooterAdapter(@NonNull RecyclerView.Adapter originAdapter) {
         super(originAdapter);
@@ -29,13 +62,9 @@ public class HeaderFooterAdapter extends AdapterWrapper {
     @NonNull
     @Override
     public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        final View header = headers.get(viewType);
-        if (null != header) {
-            return new SimpleViewHolder(header);
-        }
-        final View footer = footers.get(viewType);
-        if (null != footer) {
-            return new SimpleViewHolder(footer);
+        final View fixedView = fixedViews.get(viewType);
+        if (null != fixedView) {
+            return new SimpleViewHolder(fixedView);
         }
         return super.onCreateViewHolder(parent, viewType);
     }
@@ -43,23 +72,50 @@ public class HeaderFooterAdapter extends AdapterWrapper {
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
         if (!isHeaderViewPos(position) && !isFooterViewPos(position)) {
-            super.onBindViewHolder(holder, calculateOriginPosition(position));
+            super.onBindViewHolder(holder, position);
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List payloads) {
+        if (!isHeaderViewPos(position) && !isFooterViewPos(position)) {
+            super.onBindViewHolder(holder, position, payloads);
         }
     }
 
     @Override
     public int getItemViewType(int position) {
         if (isHeaderViewPos(position)) {
-            return headers.keyAt(position);
+            return headerTypes.get(position);
         }
         if (isFooterViewPos(position)) {
-            return footers.keyAt(calculateOriginPosition(position) - getOriginItemCount());
+            return footerTypes.get(toOriginPosition(position) - getOriginItemCount());
         }
-        return super.getItemViewType(calculateOriginPosition(position));
+        return super.getItemViewType(position);
     }
 
-    private int calculateOriginPosition(int position) {
-        return position - getHeaderCount();
+    @Override
+    public long getItemId(int position) {
+        if (!hasStableIds()) {
+            return RecyclerView.NO_ID;
+        }
+        if (isHeaderViewPos(position) || isFooterViewPos(position)) {
+            return BASE_ITEM_ID + (getItemViewType(position) & 0xFFFFFFFFL);
+        }
+        return super.getItemId(position);
+    }
+
+    /**
+     * header 都在 origin 之前，footer 都在 origin 之后
+     */
+    @Override
+    protected boolean isEdgeItemsOnly() {
+        return true;
+    }
+
+    @Override
+    protected int getOriginPositionOffset() {
+        return getHeaderCount();
     }
 
 
@@ -83,24 +139,39 @@ public class HeaderFooterAdapter extends AdapterWrapper {
     public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
         /* 让原始的 adapter 执行 onAttachedToRecyclerView.  */
         super.onAttachedToRecyclerView(recyclerView);
+        originItemCount = getOriginItemCount();
 
-        /* 对 gridLayoutManager 进行适配. */
+        /* 对 gridLayoutManager 进行适配，spanSize 等由 CachedSpanSizeLookup 缓存. */
+        releaseSpanSizeLookup();
         final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
         if (layoutManager instanceof GridLayoutManager) {
             final GridLayoutManager gridLayoutManager = (GridLayoutManager) layoutManager;
             final GridLayoutManager.SpanSizeLookup originSpanSizeLookup = gridLayoutManager.getSpanSizeLookup();
-            final int spanCount = gridLayoutManager.getSpanCount();
-            gridLayoutManager.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+            spanSizeLookup = new CachedSpanSizeLookup(this, gridLayoutManager) {
                 @Override
-                public int getSpanSize(int position) {
+                protected int computeSpanSize(int position) {
                     // header 或 footer 占满一整行
                     if (isHeaderViewPos(position) || isFooterViewPos(position)) {
-                        return spanCount;
+                        return getSpanCount();
                     } else {
-                        return null != originSpanSizeLookup ? originSpanSizeLookup.getSpanSize(calculateOriginPosition(position)) : 1;
+                        return null != originSpanSizeLookup ? originSpanSizeLookup.getSpanSize(toOriginPosition(position)) : 1;
                     }
                 }
-            });
+            };
+            gridLayoutManager.setSpanSizeLookup(spanSizeLookup);
+        }
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        releaseSpanSizeLookup();
+    }
+
+    private void releaseSpanSizeLookup() {
+        if (null != spanSizeLookup) {
+            spanSizeLookup.release();
+            spanSizeLookup = null;
         }
     }
 
@@ -127,6 +198,33 @@ public class HeaderFooterAdapter extends AdapterWrapper {
     // 修正 notify 的 position
     ///////////////////////////////////////////////////////////////////////////
 
+    /**
+     * origin 整体刷新时只通知 origin 所在的范围，不重新绑定 header、footer
+     * <p>
+     * 开启 stable id 时原样整体刷新，由 RecyclerView 按 id 匹配 ViewHolder，按范围通知会让 id 变化的 item 被当作同一个 item 重新绑定
+     */
+    @Override
+    public void onOriginChanged() {
+        invalidatePositionMapping();
+        final int oldItemCount = originItemCount;
+        final int newItemCount = getOriginItemCount();
+        originItemCount = newItemCount;
+        if (hasStableIds()) {
+            notifyDataSetChanged();
+            return;
+        }
+        final int headerCount = getHeaderCount();
+        final int changedCount = Math.min(oldItemCount, newItemCount);
+        if (changedCount > 0) {
+            notifyItemRangeChanged(headerCount, changedCount);
+        }
+        if (newItemCount > oldItemCount) {
+            notifyItemRangeInserted(headerCount + oldItemCount, newItemCount - oldItemCount);
+        } else if (newItemCount < oldItemCount) {
+            notifyItemRangeRemoved(headerCount + newItemCount, oldItemCount - newItemCount);
+        }
+    }
+
     @Override
     public void onOriginItemRangeChanged(int positionStart, int itemCount) {
         super.onOriginItemRangeChanged(positionStart + getHeaderCount(), itemCount);
@@ -139,11 +237,13 @@ public class HeaderFooterAdapter extends AdapterWrapper {
 
     @Override
     public void onOriginItemRangeInserted(int positionStart, int itemCount) {
+        originItemCount += itemCount;
         super.onOriginItemRangeInserted(positionStart + getHeaderCount(), itemCount);
     }
 
     @Override
     public void onOriginItemRangeRemoved(int positionStart, int itemCount) {
+        originItemCount -= itemCount;
         super.onOriginItemRangeRemoved(positionStart + getHeaderCount(), itemCount);
     }
 
@@ -171,15 +271,15 @@ public class HeaderFooterAdapter extends AdapterWrapper {
     /**
      * 获取 header 的个数
      */
-    private int getHeaderCount() {
-        return headers.size();
+    public int getHeaderCount() {
+        return headerTypes.size();
     }
 
     /**
      * 获取 footer 的个数
      */
-    private int getFooterCount() {
-        return footers.size();
+    public int getFooterCount() {
+        return footerTypes.size();
     }
 
     /**
@@ -190,19 +290,159 @@ public class HeaderFooterAdapter extends AdapterWrapper {
     }
 
     /**
-     * 添加 header
+     * 在末尾添加 header
      */
     public void addHeader(@NonNull View view) {
-        final int viewType = BASE_ITEM_TYPE_HEADER - getHeaderCount();
-        headers.put(viewType, view);
+        addHeader(getHeaderCount(), view);
     }
 
     /**
-     * 添加 footer
+     * 在指定位置插入 header
+     */
+    public void addHeader(int index, @NonNull View view) {
+        headerTypes.add(index, obtainFixedViewType(view));
+        invalidatePositionMapping();
+        notifyItemInserted(index);
+        notifyOriginShifted();
+    }
+
+    /**
+     * 移除 header
+     *
+     * @return 是否存在并移除了该 header
+     */
+    public boolean removeHeader(@NonNull View view) {
+        final int index = indexOfFixedView(headerTypes, view);
+        if (index < 0) {
+            return false;
+        }
+        removeHeaderAt(index);
+        return true;
+    }
+
+    /**
+     * 移除指定位置的 header
+     *
+     * @return 被移除的 header
+     */
+    @NonNull
+    public View removeHeaderAt(int index) {
+        final View view = releaseFixedViewType(headerTypes.remove(index));
+        invalidatePositionMapping();
+        notifyItemRemoved(index);
+        notifyOriginShifted();
+        return view;
+    }
+
+    /**
+     * header 个数变化后 origin 的 item 整体偏移，RecyclerView 只移动而不重新绑定它们，通知它们重新计算绑定时记录的位置偏移
+     */
+    private void notifyOriginShifted() {
+        final int originItemCount = getOriginItemCount();
+        if (originItemCount > 0) {
+            notifyItemRangeChanged(getHeaderCount(), originItemCount, CommonViewHolder.PAYLOAD_POSITION_SHIFTED);
+        }
+    }
+
+    /**
+     * 替换指定位置的 header，新的 header 使用新的 itemViewType
+     *
+     * @return 被替换的 header
+     */
+    @NonNull
+    public View setHeader(int index, @NonNull View view) {
+        final View oldView = releaseFixedViewType(headerTypes.set(index, obtainFixedViewType(view)));
+        notifyItemChanged(index);
+        return oldView;
+    }
+
+    /**
+     * 在末尾添加 footer
      */
     public void addFooter(@NonNull View view) {
-        final int viewType = BASE_ITEM_TYPE_FOOTER - getFooterCount();
-        footers.put(viewType, view);
+        addFooter(getFooterCount(), view);
+    }
+
+    /**
+     * 在指定位置插入 footer
+     */
+    public void addFooter(int index, @NonNull View view) {
+        footerTypes.add(index, obtainFixedViewType(view));
+        notifyItemInserted(getFooterStartPosition() + index);
+    }
+
+    /**
+     * 移除 footer
+     *
+     * @return 是否存在并移除了该 footer
+     */
+    public boolean removeFooter(@NonNull View view) {
+        final int index = indexOfFixedView(footerTypes, view);
+        if (index < 0) {
+            return false;
+        }
+        removeFooterAt(index);
+        return true;
+    }
+
+    /**
+     * 移除指定位置的 footer
+     *
+     * @return 被移除的 footer
+     */
+    @NonNull
+    public View removeFooterAt(int index) {
+        final View view = releaseFixedViewType(footerTypes.remove(index));
+        notifyItemRemoved(getFooterStartPosition() + index);
+        return view;
+    }
+
+    /**
+     * 替换指定位置的 footer，新的 footer 使用新的 itemViewType
+     *
+     * @return 被替换的 footer
+     */
+    @NonNull
+    public View setFooter(int index, @NonNull View view) {
+        final View oldView = releaseFixedViewType(footerTypes.set(index, obtainFixedViewType(view)));
+        notifyItemChanged(getFooterStartPosition() + index);
+        return oldView;
+    }
+
+    /**
+     * 第一个 footer 的位置
+     */
+    private int getFooterStartPosition() {
+        return getHeaderCount() + getOriginItemCount();
+    }
+
+    /**
+     * 为 view 分配新的 itemViewType，同一个 view 不能同时作为多个 header、footer
+     */
+    private int obtainFixedViewType(@NonNull View view) {
+        if (fixedViews.indexOfValue(view) >= 0) {
+            throw new IllegalArgumentException("View " + view + " has already been added as a header or footer.");
+        }
+        final int viewType = NEXT_FIXED_VIEW_TYPE.getAndDecrement();
+        fixedViews.put(viewType, view);
+        return viewType;
+    }
+
+    @NonNull
+    private View releaseFixedViewType(int viewType) {
+        final View view = fixedViews.get(viewType);
+        fixedViews.remove(viewType);
+        //noinspection ConstantConditions
+        return view;
+    }
+
+    private int indexOfFixedView(@NonNull List<Integer> types, @NonNull View view) {
+        for (int i = 0; i < types.size(); i++) {
+            if (fixedViews.get(types.get(i)) == view) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     ///////////////////////////////////////////////////////////////////////////
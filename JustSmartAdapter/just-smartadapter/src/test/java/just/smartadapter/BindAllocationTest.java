@@ -0,0 +1,89 @@
+package just.smartadapter;
+
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import just.smartadapter.core.CommonViewHolder;
+import just.smartadapter.core.ListDataSource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 验证 onBindViewHolder 在稳定状态下不分配内存
+ */
+public class BindAllocationTest {
+
+    private static final int TYPE_ITEM = 1;
+
+    private static final int ITEM_COUNT = 100;
+
+    private static final int WARM_UP_BINDS = 20_000;
+
+    private static final int MEASURED_BINDS = 100_000;
+
+    @Test
+    public void onBindViewHolder_allocatesNothing() throws Exception {
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        final List<String> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add("item " + i);
+        }
+        final int[] bindCount = {0};
+        final SmartAdapter<String> adapter = SmartAdapter.newBuilder(new ListDataSource<>(items))
+                .cacheItemViewType()
+                .type(TYPE_ITEM)
+                .ofClass(String.class)
+                .onBind((viewHolder, data, position, type, smartAdapter) -> bindCount[0]++)
+                .onItemClick((data, position, layoutPosition, type, view, smartAdapter) -> {
+                })
+                .onItemLongClick((data, position, layoutPosition, type, view, smartAdapter) -> true)
+                .build();
+
+        final CommonViewHolder holder = new CommonViewHolder(new View(null));
+        setItemViewType(holder, adapter.getItemViewType(0));
+
+        /* 预热，让首次绑定安装事件分发器、JIT 完成编译. */
+        for (int i = 0; i < WARM_UP_BINDS; i++) {
+            bind(adapter, holder, i % ITEM_COUNT);
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_BINDS; i++) {
+            bind(adapter, holder, i % ITEM_COUNT);
+        }
+        final long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(WARM_UP_BINDS + MEASURED_BINDS, bindCount[0]);
+        assertEquals("bytes allocated by " + MEASURED_BINDS + " binds", 0, allocated);
+    }
+
+    /**
+     * 与 RecyclerView 绑定时一样，先解析 itemViewType 再绑定
+     */
+    private static void bind(SmartAdapter<String> adapter, CommonViewHolder holder, int position) {
+        adapter.getItemViewType(position);
+        adapter.onBindViewHolder(holder, position);
+    }
+
+    /**
+     * holder 未经 RecyclerView 创建，手动写入 itemViewType
+     */
+    private static void setItemViewType(RecyclerView.ViewHolder holder, int itemViewType) throws Exception {
+        final Field field = RecyclerView.ViewHolder.class.getDeclaredField("mItemViewType");
+        field.setAccessible(true);
+        field.setInt(holder, itemViewType);
+    }
+}
@@ -0,0 +1,224 @@
+package just.smartadapter;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import just.smartadapter.core.AutoNotifyDataSource;
+import just.smartadapter.core.CommonViewHolder;
+import just.smartadapter.core.ListDataSource;
+import just.smartadapter.wrapper.ConcatAdapter;
+import just.smartadapter.wrapper.HeaderFooterAdapter;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 验证包装 adapter 在前面增删 item 后，被包装的 SmartAdapter 的点击事件仍然拿到正确的位置和数据
+ */
+public class WrappedClickPositionTest {
+
+    private static final int TYPE_ITEM = 1;
+
+    @Test
+    public void addHeader_clickResolvesShiftedItem() throws Exception {
+        final List<Object> clicked = new ArrayList<>();
+        final SmartAdapter<String> smartAdapter = newClickableAdapter(items("a", 5), clicked);
+        final HeaderFooterAdapter adapter = new HeaderFooterAdapter(smartAdapter);
+        adapter.addHeader(new View(null));
+        final FakeRecyclerView recyclerView = new FakeRecyclerView(adapter);
+        final CommonViewHolder holder = recyclerView.bind(3);
+
+        adapter.addHeader(0, new View(null));
+        click(holder);
+
+        assertEquals(4, holder.getLayoutPosition());
+        assertEquals(2, clicked.get(1));
+        assertEquals("a2", clicked.get(0));
+    }
+
+    @Test
+    public void removeHeader_clickResolvesShiftedItem() throws Exception {
+        final List<Object> clicked = new ArrayList<>();
+        final SmartAdapter<String> smartAdapter = newClickableAdapter(items("a", 5), clicked);
+        final HeaderFooterAdapter adapter = new HeaderFooterAdapter(smartAdapter);
+        adapter.addHeader(new View(null));
+        adapter.addHeader(new View(null));
+        final FakeRecyclerView recyclerView = new FakeRecyclerView(adapter);
+        final CommonViewHolder holder = recyclerView.bind(6);
+
+        adapter.removeHeaderAt(0);
+        click(holder);
+
+        assertEquals(5, holder.getLayoutPosition());
+        assertEquals(4, clicked.get(1));
+        assertEquals("a4", clicked.get(0));
+    }
+
+    @Test
+    public void insertIntoEarlierSection_clickResolvesItemOfLaterSection() throws Exception {
+        final List<Object> clicked = new ArrayList<>();
+        final AutoNotifyDataSource<String> first = new AutoNotifyDataSource<>(new ListDataSource<>(items("a", 3)));
+        final SmartAdapter<String> firstAdapter = newClickableAdapter(first, new ArrayList<>());
+        /* 与 attach 到 RecyclerView 时一样，数据变化后通知 adapter. */
+        first.onAttach(firstAdapter);
+        final ConcatAdapter adapter = new ConcatAdapter(firstAdapter, newClickableAdapter(new ListDataSource<>(items("b", 4)), clicked));
+        final FakeRecyclerView recyclerView = new FakeRecyclerView(adapter);
+        final CommonViewHolder holder = recyclerView.bind(4);
+
+        first.add(0, "a-new");
+        first.add("a-last");
+        click(holder);
+
+        assertEquals(6, holder.getLayoutPosition());
+        assertEquals(1, clicked.get(1));
+        assertEquals("b1", clicked.get(0));
+
+        first.removeAt(1);
+        click(holder);
+
+        assertEquals(5, holder.getLayoutPosition());
+        assertEquals("b1", clicked.get(0));
+    }
+
+    @Test
+    public void addAdapterBefore_clickResolvesItemOfLaterSection() throws Exception {
+        final List<Object> clicked = new ArrayList<>();
+        final ConcatAdapter adapter = new ConcatAdapter(newClickableAdapter(new ListDataSource<>(items("b", 4)), clicked));
+        final FakeRecyclerView recyclerView = new FakeRecyclerView(adapter);
+        final CommonViewHolder holder = recyclerView.bind(2);
+
+        final SmartAdapter<String> inserted = newClickableAdapter(new ListDataSource<>(items("a", 3)), new ArrayList<>());
+        adapter.addAdapter(0, inserted);
+        click(holder);
+
+        assertEquals(5, holder.getLayoutPosition());
+        assertEquals("b2", clicked.get(0));
+
+        adapter.removeAdapter(inserted);
+        click(holder);
+
+        assertEquals(2, holder.getLayoutPosition());
+        assertEquals("b2", clicked.get(0));
+    }
+
+    @NonNull
+    static List<String> items(@NonNull String prefix, int count) {
+        final List<String> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(prefix + i);
+        }
+        return items;
+    }
+
+    /**
+     * 点击时记录 data 和 position
+     */
+    @NonNull
+    static SmartAdapter<String> newClickableAdapter(@NonNull List<String> items, @NonNull List<Object> clicked) {
+        return newClickableAdapter(new ListDataSource<>(items), clicked);
+    }
+
+    @NonNull
+    static SmartAdapter<String> newClickableAdapter(@NonNull SmartAdapter.DataSource<String> dataSource, @NonNull List<Object> clicked) {
+        return SmartAdapter.newBuilder(dataSource)
+                .type(TYPE_ITEM)
+                .ofClass(String.class)
+                .onItemClick((data, position, layoutPosition, type, view, smartAdapter) -> {
+                    clicked.clear();
+                    clicked.add(data);
+                    clicked.add(position);
+                })
+                .build();
+    }
+
+    static void click(@NonNull CommonViewHolder holder) {
+        ((View.OnClickListener) holder.getItemEventDispatcher()).onClick(holder.itemView);
+    }
+
+    /**
+     * 按 RecyclerView 的方式处理通知：插入、移除只平移 holder 的位置，变化的位置按 payload 重新绑定
+     */
+    static final class FakeRecyclerView extends RecyclerView.AdapterDataObserver {
+
+        @NonNull
+        private final RecyclerView.Adapter adapter;
+
+        @NonNull
+        private final List<CommonViewHolder> holders = new ArrayList<>();
+
+        FakeRecyclerView(@NonNull RecyclerView.Adapter adapter) {
+            this.adapter = adapter;
+            adapter.registerAdapterDataObserver(this);
+        }
+
+        @NonNull
+        CommonViewHolder bind(int position) throws Exception {
+            final CommonViewHolder holder = new CommonViewHolder(new View(null));
+            setField(holder, "mItemViewType", adapter.getItemViewType(position));
+            setField(holder, "mPosition", position);
+            /* 与 SmartAdapter 创建 holder 时一样记录其自身的 type，ConcatAdapter 中 holder 的 itemViewType 是重新分配后的 type. */
+            holder.setCreatedItemViewType(TYPE_ITEM);
+            //noinspection unchecked
+            adapter.onBindViewHolder(holder, position);
+            holders.add(holder);
+            return holder;
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            for (CommonViewHolder holder : holders) {
+                if (holder.getLayoutPosition() >= positionStart) {
+                    setPosition(holder, holder.getLayoutPosition() + itemCount);
+                }
+            }
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            for (CommonViewHolder holder : holders) {
+                if (holder.getLayoutPosition() >= positionStart + itemCount) {
+                    setPosition(holder, holder.getLayoutPosition() - itemCount);
+                }
+            }
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            onItemRangeChanged(positionStart, itemCount, null);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            for (CommonViewHolder holder : holders) {
+                final int position = holder.getLayoutPosition();
+                if (position >= positionStart && position < positionStart + itemCount) {
+                    //noinspection unchecked
+                    adapter.onBindViewHolder(holder, position, null == payload ? Collections.emptyList() : Collections.singletonList(payload));
+                }
+            }
+        }
+
+        private static void setPosition(@NonNull RecyclerView.ViewHolder holder, int position) {
+            try {
+                setField(holder, "mPosition", position);
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        private static void setField(@NonNull RecyclerView.ViewHolder holder, @NonNull String name, int value) throws Exception {
+            final Field field = RecyclerView.ViewHolder.class.getDeclaredField(name);
+            field.setAccessible(true);
+            field.setInt(holder, value);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package just.smartadapter.core;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 以 ArrayList 为参照，随机执行各类修改，验证 ChunkedList 的内容始终一致
+ */
+public class ChunkedListTest {
+
+    /**
+     * 超过两层分支节点的容量，覆盖分裂、合并和降低树高
+     */
+    private static final int MAX_SIZE = 5000;
+
+    @Test
+    public void randomOperations_matchArrayList() {
+        for (long seed = 1; seed <= 5; seed++) {
+            runRandomOperations(new Random(seed), 4000);
+        }
+    }
+
+    private static void runRandomOperations(@NonNull Random random, int operations) {
+        /* 从批量构建的树开始，树高至少为 2. */
+        final List<Integer> expected = new ArrayList<>();
+        int next = 0;
+        for (int i = random.nextInt(MAX_SIZE / 2) + MAX_SIZE / 2; i > 0; i--) {
+            expected.add(next++);
+        }
+        final ChunkedList<Integer> actual = new ChunkedList<>(expected);
+        for (int i = 0; i < operations; i++) {
+            final int size = expected.size();
+            final int operation = random.nextInt(size < MAX_SIZE ? 10 : 8);
+            switch (operation) {
+                case 0: {
+                    final int index = random.nextInt(size + 1);
+                    expected.add(index, next);
+                    actual.add(index, next);
+                    next++;
+                    break;
+                }
+                case 1: {
+                    final List<Integer> items = new ArrayList<>();
+                    for (int j = random.nextInt(random.nextBoolean() ? 8 : 300); j >= 0; j--) {
+                        items.add(next++);
+                    }
+                    final int index = random.nextInt(size + 1);
+                    expected.addAll(index, items);
+                    actual.addAll(index, items);
+                    break;
+                }
+                case 2:
+                    if (size > 0) {
+                        final int index = random.nextInt(size);
+                        assertEquals(expected.remove(index), actual.remove(index));
+                    }
+                    break;
+                case 3:
+                    if (size > 0) {
+                        final int from = random.nextInt(size);
+                        final int to = from + random.nextInt(Math.min(size - from, 60) + 1);
+                        expected.subList(from, to).clear();
+                        actual.subList(from, to).clear();
+                    }
+                    break;
+                case 4:
+                    if (size > 0) {
+                        final int from = random.nextInt(size);
+                        final int to = random.nextInt(size);
+                        expected.add(to, expected.remove(from));
+                        actual.move(from, to);
+                    }
+                    break;
+                case 5:
+                    if (size > 0) {
+                        final int count = random.nextInt(Math.min(size, 200)) + 1;
+                        final int from = random.nextInt(size - count + 1);
+                        final int to = random.nextInt(size - count + 1);
+                        moveRange(expected, from, to, count);
+                        actual.moveRange(from, to, count);
+                    }
+                    break;
+                case 6:
+                    if (size > 0) {
+                        final int divisor = 10 + random.nextInt(20);
+                        final Iterator<Integer> expectedIterator = expected.iterator();
+                        final Iterator<Integer> actualIterator = actual.iterator();
+                        while (expectedIterator.hasNext()) {
+                            final Integer value = expectedIterator.next();
+                            assertEquals(value, actualIterator.next());
+                            if (value % divisor == 0) {
+                                expectedIterator.remove();
+                                actualIterator.remove();
+                            }
+                        }
+                    }
+                    break;
+                case 7:
+                    if (random.nextInt(50) == 0) {
+                        expected.clear();
+                        actual.clear();
+                    } else if (size > 0) {
+                        final int index = random.nextInt(size);
+                        assertEquals(expected.set(index, next), actual.set(index, next));
+                        next++;
+                    }
+                    break;
+                default: {
+                    expected.add(next);
+                    actual.add(next);
+                    next++;
+                    break;
+                }
+            }
+            assertEquals(expected.size(), actual.size());
+            if (expected.size() > 0) {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), actual.get(index));
+            }
+            if (i % 50 == 0) {
+                assertEquals(expected, new ArrayList<>(actual));
+            }
+        }
+        assertEquals(expected, new ArrayList<>(actual));
+    }
+
+    /**
+     * 参照实现：移动后第一个元素位于 toIndex
+     */
+    private static void moveRange(@NonNull List<Integer> list, int fromIndex, int toIndex, int count) {
+        final List<Integer> block = new ArrayList<>(list.subList(fromIndex, fromIndex + count));
+        list.subList(fromIndex, fromIndex + count).clear();
+        list.addAll(toIndex, block);
+    }
+}
@@ -0,0 +1,168 @@
+package just.smartadapter.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 验证 FilteredDataSource 的增量维护与原始数据源的通知一致
+ */
+public class FilteredDataSourceTest {
+
+    private static final FilteredDataSource.Filter<Integer> EVEN = element -> element % 2 == 0;
+
+    @Test
+    public void batch_testsInsertedItemsAgainstFinalData() {
+        final AutoNotifyDataSource<Integer> origin = new AutoNotifyDataSource<>(new ListDataSource<>(range(10)));
+        final FilteredDataSource<Integer> filtered = new FilteredDataSource<>(origin, EVEN);
+        final ReplayingOwner owner = new ReplayingOwner(filtered);
+
+        origin.batch(tx -> {
+            tx.add(5, 101);
+            tx.add(0, 102);
+        });
+
+        assertEquals(Arrays.asList(102, 0, 2, 4, 6, 8), new ArrayList<>(filtered.getAll()));
+        owner.assertConsistent();
+    }
+
+    @Test
+    public void batch_testsChangedItemsAgainstFinalData() {
+        final AutoNotifyDataSource<Integer> origin = new AutoNotifyDataSource<>(new ListDataSource<>(range(10)));
+        final FilteredDataSource<Integer> filtered = new FilteredDataSource<>(origin, EVEN);
+        final ReplayingOwner owner = new ReplayingOwner(filtered);
+
+        origin.batch(tx -> {
+            tx.set(3, 30);
+            tx.set(4, 41);
+            tx.move(9, 0);
+            tx.removeAt(1);
+            tx.add(2, 7);
+        });
+
+        assertEquals(Arrays.asList(2, 30, 6, 8), new ArrayList<>(filtered.getAll()));
+        owner.assertConsistent();
+    }
+
+    @Test
+    public void singleMutations_updateIncrementally() {
+        final AutoNotifyDataSource<Integer> origin = new AutoNotifyDataSource<>(new ListDataSource<>(range(10)));
+        final FilteredDataSource<Integer> filtered = new FilteredDataSource<>(origin, EVEN);
+        final ReplayingOwner owner = new ReplayingOwner(filtered);
+
+        origin.add(5, 101);
+        origin.add(0, 102);
+        origin.set(2, 11);
+        origin.removeAt(origin.size() - 1);
+
+        assertEquals(Arrays.asList(102, 0, 2, 4, 6, 8), new ArrayList<>(filtered.getAll()));
+        owner.assertConsistent();
+    }
+
+    @NonNull
+    private static List<Integer> range(int size) {
+        final List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    /**
+     * 按收到的通知重放到影子列表上，插入和变化的位置记为 null，最后与过滤结果比较
+     */
+    private static final class ReplayingOwner implements AdapterNotifierOwner, AdapterNotifier {
+
+        @NonNull
+        private final FilteredDataSource<Integer> dataSource;
+
+        @NonNull
+        private final List<Integer> shadow;
+
+        ReplayingOwner(@NonNull FilteredDataSource<Integer> dataSource) {
+            this.dataSource = dataSource;
+            this.shadow = new ArrayList<>(dataSource.getAll());
+            dataSource.onAttach(this);
+        }
+
+        void assertConsistent() {
+            assertEquals(dataSource.size(), shadow.size());
+            for (int i = 0; i < shadow.size(); i++) {
+                final Integer expected = shadow.get(i);
+                if (null != expected) {
+                    assertEquals("position " + i, expected, dataSource.get(i));
+                }
+            }
+        }
+
+        @NonNull
+        @Override
+        public AdapterNotifier getNotifier() {
+            return this;
+        }
+
+        @Override
+        public void notifyDataSetChanged() {
+            shadow.clear();
+            for (int i = 0; i < dataSource.size(); i++) {
+                shadow.add(null);
+            }
+        }
+
+        @Override
+        public void notifyItemChanged(int position) {
+            notifyItemRangeChanged(position, 1);
+        }
+
+        @Override
+        public void notifyItemChanged(int position, @Nullable Object payload) {
+            notifyItemRangeChanged(position, 1);
+        }
+
+        @Override
+        public void notifyItemRangeChanged(int positionStart, int itemCount) {
+            for (int i = positionStart; i < positionStart + itemCount; i++) {
+                shadow.set(i, null);
+            }
+        }
+
+        @Override
+        public void notifyItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+            notifyItemRangeChanged(positionStart, itemCount);
+        }
+
+        @Override
+        public void notifyItemMoved(int fromPosition, int toPosition) {
+            shadow.add(toPosition, shadow.remove(fromPosition));
+        }
+
+        @Override
+        public void notifyItemInserted(int position) {
+            notifyItemRangeInserted(position, 1);
+        }
+
+        @Override
+        public void notifyItemRangeInserted(int positionStart, int itemCount) {
+            for (int i = 0; i < itemCount; i++) {
+                shadow.add(positionStart, null);
+            }
+        }
+
+        @Override
+        public void notifyItemRemoved(int position) {
+            notifyItemRangeRemoved(position, 1);
+        }
+
+        @Override
+        public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+            shadow.subList(positionStart, positionStart + itemCount).clear();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package just.smartadapter.core;
+
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 验证 FixedAdapterNotifier 在回放期间合并重新绑定的通知
+ */
+public class FixedAdapterNotifierTest {
+
+    @Test
+    public void deferredUpdates_rebindTailOnceFromMinimumShiftedPosition() {
+        final CountingAdapter adapter = new CountingAdapter(100);
+        final FixedAdapterNotifier notifier = new FixedAdapterNotifier(adapter);
+
+        notifier.beginDeferredUpdates();
+        notifier.notifyItemInserted(40);
+        notifier.notifyItemRemoved(10);
+        notifier.notifyItemMoved(70, 20);
+        notifier.notifyItemRangeInserted(60, 5);
+        notifier.endDeferredUpdates();
+
+        assertEquals(Arrays.asList("+40,1", "-10,1", "m70,20", "+60,5", "c10,90"), adapter.events);
+    }
+
+    @Test
+    public void nestedDeferredUpdates_rebindAtOutermostEnd() {
+        final CountingAdapter adapter = new CountingAdapter(10);
+        final FixedAdapterNotifier notifier = new FixedAdapterNotifier(adapter);
+
+        notifier.beginDeferredUpdates();
+        notifier.beginDeferredUpdates();
+        notifier.notifyItemRemoved(3);
+        notifier.endDeferredUpdates();
+        notifier.notifyItemInserted(5);
+        notifier.endDeferredUpdates();
+        notifier.notifyItemRemoved(8);
+
+        assertEquals(Arrays.asList("-3,1", "+5,1", "c3,7", "-8,1", "c8,2"), adapter.events);
+    }
+
+    /**
+     * 记录收到的通知，item 个数固定为最终状态，与回放期间一致
+     */
+    private static final class CountingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        @NonNull
+        private final List<String> events = new ArrayList<>();
+
+        private final int itemCount;
+
+        CountingAdapter(int itemCount) {
+            this.itemCount = itemCount;
+            registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+                @Override
+                public void onItemRangeChanged(int positionStart, int itemCount) {
+                    events.add("c" + positionStart + "," + itemCount);
+                }
+
+                @Override
+                public void onItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
+                    events.add("c" + positionStart + "," + itemCount);
+                }
+
+                @Override
+                public void onItemRangeInserted(int positionStart, int itemCount) {
+                    events.add("+" + positionStart + "," + itemCount);
+                }
+
+                @Override
+                public void onItemRangeRemoved(int positionStart, int itemCount) {
+                    events.add("-" + positionStart + "," + itemCount);
+                }
+
+                @Override
+                public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                    events.add("m" + fromPosition + "," + toPosition);
+                }
+            });
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return itemCount;
+        }
+    }
+}
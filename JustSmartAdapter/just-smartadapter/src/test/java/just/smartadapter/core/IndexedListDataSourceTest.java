@@ -0,0 +1,139 @@
+package just.smartadapter.core;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 验证 IndexedListDataSource 的索引在增删、移动后仍然准确，且查找不退化为扫描
+ */
+public class IndexedListDataSourceTest {
+
+    private static final int SIZE = 2000;
+
+    @Test
+    public void headInsertsAndRemoves_lookupProbesConstant() {
+        final CountingList list = new CountingList(range(SIZE));
+        final IndexedListDataSource<Integer> dataSource = new IndexedListDataSource<>(list);
+        /* 第一次查找最后一个 item 时建立完整的索引. */
+        assertEquals(SIZE - 1, dataSource.positionOf(SIZE - 1));
+
+        int next = SIZE;
+        for (int i = 0; i < SIZE / 2; i++) {
+            dataSource.add(0, next++);
+            if (i % 3 == 0) {
+                dataSource.removeAt(1);
+            }
+            final int target = i * 7 % SIZE;
+            final int expected = list.delegate.indexOf(target);
+
+            list.gets = 0;
+            assertEquals(expected, dataSource.positionOf(target));
+            assertTrue("gets per lookup: " + list.gets, list.gets <= 1 || expected < 0);
+        }
+    }
+
+    @Test
+    public void randomMutations_positionsMatchList() {
+        final Random random = new Random(7);
+        final CountingList list = new CountingList(range(300));
+        final IndexedListDataSource<Integer> dataSource = new IndexedListDataSource<>(list);
+        int next = 300;
+        for (int i = 0; i < 5000; i++) {
+            final int size = list.size();
+            switch (random.nextInt(6)) {
+                case 0:
+                    dataSource.add(random.nextInt(size + 1), next++);
+                    break;
+                case 1:
+                    if (size > 0) {
+                        dataSource.removeAt(random.nextInt(size));
+                    }
+                    break;
+                case 2:
+                    if (size > 0) {
+                        dataSource.move(random.nextInt(size), random.nextInt(size));
+                    }
+                    break;
+                case 3:
+                    final List<Integer> added = new ArrayList<>();
+                    for (int j = random.nextInt(4); j > 0; j--) {
+                        added.add(next++);
+                    }
+                    dataSource.addAll(random.nextInt(size + 1), added);
+                    break;
+                case 4:
+                    if (size > 0) {
+                        dataSource.set(random.nextInt(size), next++);
+                    }
+                    break;
+                default:
+                    final int divisor = 20 + random.nextInt(20);
+                    if (random.nextInt(10) == 0) {
+                        dataSource.removeIf((data, position) -> data % divisor == 0);
+                    }
+                    break;
+            }
+            final int target = random.nextInt(next);
+            assertEquals(list.delegate.indexOf(target), dataSource.positionOf(target));
+        }
+    }
+
+    @NonNull
+    private static List<Integer> range(int count) {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    /**
+     * 记录 get 的次数
+     */
+    private static final class CountingList extends AbstractList<Integer> {
+
+        @NonNull
+        private final ArrayList<Integer> delegate;
+
+        private int gets;
+
+        CountingList(@NonNull List<Integer> items) {
+            this.delegate = new ArrayList<>(items);
+        }
+
+        @Override
+        public Integer get(int index) {
+            gets++;
+            return delegate.get(index);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public Integer set(int index, Integer element) {
+            return delegate.set(index, element);
+        }
+
+        @Override
+        public void add(int index, Integer element) {
+            delegate.add(index, element);
+        }
+
+        @Override
+        public Integer remove(int index) {
+            return delegate.remove(index);
+        }
+    }
+}